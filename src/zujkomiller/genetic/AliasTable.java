@@ -0,0 +1,116 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * An AliasTable picks indexes at random, each with a probability in
+ * proportion to its weight, in constant time per pick: one uniform
+ * index and one coin toss, which keeps the index or gives its alias
+ * instead (Walker's alias method).  Building the table takes time
+ * proportional to the number of weights, so it pays to build it once
+ * and keep it when the same weights are used over and over.
+ * <p>
+ * An AliasTable never changes once built, so it may be shared between
+ * threads, each picking with its own RandomSource.
+ */
+public class AliasTable {
+
+    // the chance of keeping each index rather than taking its alias
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * @param weights The weight of each index.  None may be negative,
+     *  and at least one must be positive.
+     */
+    public AliasTable(double[] weights) {
+        int size = weights.length;
+        double total = 0;
+        for (int i=0; i<size; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("The weight at index " +
+                    i + " is negative: " + weights[i]);
+            }
+            total += weights[i];
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("At least one weight " +
+                "must be positive.");
+        }
+
+        this.probabilities = new double[size];
+        this.aliases = new int[size];
+        double[] scaled = new double[size];
+        int[] small = new int[size];
+        int[] large = new int[size];
+        int numSmall = 0;
+        int numLarge = 0;
+        for (int i=0; i<size; i++) {
+            this.aliases[i] = i;
+            scaled[i] = (weights[i] * size) / total;
+            if (scaled[i] < 1) {
+                small[numSmall++] = i;
+            } else {
+                large[numLarge++] = i;
+            }
+        }
+
+        // pair each index with too small a share with one with too
+        // large a share, which makes up the difference as its alias
+        while (numSmall > 0 && numLarge > 0) {
+            int less = small[--numSmall];
+            int more = large[--numLarge];
+            this.probabilities[less] = scaled[less];
+            this.aliases[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[numSmall++] = more;
+            } else {
+                large[numLarge++] = more;
+            }
+        }
+        // whatever is left over has a share of one, give or take
+        // rounding errors
+        while (numLarge > 0) {
+            this.probabilities[large[--numLarge]] = 1;
+        }
+        while (numSmall > 0) {
+            this.probabilities[small[--numSmall]] = 1;
+        }
+    }
+
+    public int getSize() {
+        return this.probabilities.length;
+    }
+
+    /**
+     * @return An index picked at random in proportion to the weights.
+     */
+    public int next(RandomSource random) {
+        int i = random.nextInt(this.probabilities.length);
+        if (random.nextDouble() >= this.probabilities[i]) {
+            i = this.aliases[i];
+        }
+        return i;
+    }
+
+}
@@ -0,0 +1,347 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * An AsyncObserver passes generations on to another EvolutionObserver on a
+ * thread of its own, so that a slow observer (one writing files, say) does
+ * not hold up the evolution.  Each generation is copied with
+ * Generation.snapshot() and put into a bounded queue, together with a copy
+ * of the observable's top score, top scorers and number of generations
+ * run as they were at that moment.  The dispatch thread then takes the
+ * generations from the queue in order and hands them to the observer.
+ * <p>
+ * What happens when a generation arrives and the queue is full is set by
+ * the policy:
+ * <ul>
+ * <li>BLOCK waits until the observer has caught up, so every generation
+ *  is delivered.</li>
+ * <li>DROP discards the arriving generation, so the observer sees the
+ *  older generations already queued.</li>
+ * <li>COALESCE replaces the newest queued generation with the arriving
+ *  one, so the observer always sees the latest generation.</li>
+ * </ul>
+ * Whatever the policy, the last generation is never discarded, and the
+ * call which passes it in does not return until the observer has finished
+ * with it, so the Evolver does not finish before its observers.
+ * <p>
+ * A RuntimeException thrown by the observer is printed and the next
+ * generation is delivered as usual.  Anything else thrown by it, such as
+ * an Error, stops the dispatch thread, and every call to
+ * generationCreated from then on throws an IllegalStateException, as do
+ * the calls waiting for the dispatch thread when it stops.
+ */
+public class AsyncObserver implements EvolutionObserver {
+
+    public static final short BLOCK = 0;
+    public static final short DROP = 1;
+    public static final short COALESCE = 2;
+
+    private final EvolutionObserver observer;
+    private final short policy;
+
+    // the queue is a ring buffer of events guarded by this object
+    private final Event[] queue;
+    private int head = 0;
+    private int count = 0;
+    private boolean lastDelivered = false;
+    private int numOfDiscarded = 0;
+
+    private Thread dispatcher = null;
+    private Throwable failure = null;
+
+    /**
+     * @param observer The EvolutionObserver to pass generations to.
+     * @param capacity The number of generations which may be waiting
+     *  for the observer at once.  Must be at least one.
+     * @param policy BLOCK, DROP or COALESCE.
+     */
+    public AsyncObserver(EvolutionObserver observer, int capacity,
+            short policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of an " +
+                "AsyncObserver must be at least one.");
+        }
+        if (policy != BLOCK && policy != DROP && policy != COALESCE) {
+            throw new IllegalArgumentException("Unknown policy: " + policy);
+        }
+        this.observer = observer;
+        this.policy = policy;
+        this.queue = new Event[capacity];
+    }
+
+    /**
+     * @return The policy name, BLOCK, DROP or COALESCE, as a constant
+     *  of this class, or -1 if the name is not recognised.  Case is
+     *  ignored.
+     */
+    public static short getPolicy(String name) {
+        short policy = -1;
+        if (name.equalsIgnoreCase("block")) {
+            policy = BLOCK;
+        } else if (name.equalsIgnoreCase("drop")) {
+            policy = DROP;
+        } else if (name.equalsIgnoreCase("coalesce")) {
+            policy = COALESCE;
+        }
+        return policy;
+    }
+
+    /**
+     * @return The EvolutionObserver generations are passed to.
+     */
+    public EvolutionObserver getObserver() {
+        return this.observer;
+    }
+
+    /**
+     * @return The number of generations which have been discarded or
+     *  replaced because the queue was full.
+     */
+    public synchronized int getNumOfDiscarded() {
+        return this.numOfDiscarded;
+    }
+
+    public void generationCreated(Generation generation, int topScoreSoFar,
+            boolean isLastGeneration, EvolutionObservable observable) {
+        if (!isLastGeneration && this.policy == DROP && isFull()) {
+            // don't bother copying a generation which will be dropped
+            synchronized (this) {
+                this.numOfDiscarded++;
+            }
+            return;
+        }
+        Event event = new Event(generation.snapshot(), topScoreSoFar,
+            isLastGeneration, new ObservableSnapshot(observable));
+        synchronized (this) {
+            checkFailure();
+            if (isLastGeneration) {
+                this.lastDelivered = false;
+            }
+            startDispatcher();
+            boolean queued = false;
+            while (!queued) {
+                if (this.count < this.queue.length) {
+                    this.queue[(this.head + this.count) % this.queue.length] =
+                        event;
+                    this.count++;
+                    queued = true;
+                } else if (!isLastGeneration && this.policy == DROP) {
+                    this.numOfDiscarded++;
+                    return;
+                } else if (this.policy == COALESCE &&
+                        !getNewest().isLastGeneration) {
+                    this.queue[(this.head + this.count - 1) %
+                        this.queue.length] = event;
+                    this.numOfDiscarded++;
+                    queued = true;
+                } else {
+                    waitForDispatcher();
+                }
+            }
+            notifyAll();
+            if (isLastGeneration) {
+                while (!this.lastDelivered) {
+                    waitForDispatcher();
+                }
+            }
+        }
+    }
+
+    private synchronized boolean isFull() {
+        return this.count == this.queue.length;
+    }
+
+    private Event getNewest() {
+        return this.queue[(this.head + this.count - 1) % this.queue.length];
+    }
+
+    private void waitForDispatcher() {
+        try {
+            wait();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting " +
+                "for an observer.");
+        }
+        checkFailure();
+    }
+
+    /**
+     * Throws an IllegalStateException if the dispatch thread has
+     * stopped because the observer failed.
+     */
+    private void checkFailure() {
+        if (this.failure != null) {
+            throw new IllegalStateException("The observer failed: " +
+                this.failure);
+        }
+    }
+
+    private void startDispatcher() {
+        if (this.dispatcher == null) {
+            this.dispatcher = new Thread(new Runnable() {
+                public void run() {
+                    dispatch();
+                }
+            }, "observer-dispatch");
+            this.dispatcher.setDaemon(true);
+            this.dispatcher.start();
+        }
+    }
+
+    /**
+     * Runs on the dispatch thread, handing each queued generation
+     * to the observer until the last one has been handed over.  If the
+     * thread stops for any other reason, the failure is recorded and
+     * the threads waiting for it are woken.
+     */
+    private void dispatch() {
+        boolean done = false;
+        try {
+            done = dispatchAll();
+        } catch (Throwable t) {
+            synchronized (this) {
+                this.failure = t;
+            }
+            if (t instanceof Error) {
+                throw (Error)t;
+            }
+            throw (RuntimeException)t;
+        } finally {
+            if (!done) {
+                synchronized (this) {
+                    if (this.failure == null) {
+                        this.failure = new InterruptedException
+                            ("The dispatch thread was interrupted.");
+                    }
+                    for (int n=0; n<this.queue.length; n++) {
+                        this.queue[n] = null;
+                    }
+                    this.count = 0;
+                    this.lastDelivered = true;
+                    this.dispatcher = null;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True once the last generation has been handed over, or
+     *  false if the thread was interrupted first.
+     */
+    private boolean dispatchAll() {
+        boolean done = false;
+        while (!done) {
+            Event event = null;
+            synchronized (this) {
+                while (this.count == 0) {
+                    try {
+                        wait();
+                    } catch (InterruptedException ie) {
+                        return false;
+                    }
+                }
+                event = this.queue[this.head];
+                this.queue[this.head] = null;
+                this.head = (this.head + 1) % this.queue.length;
+                this.count--;
+                notifyAll();
+            }
+            try {
+                this.observer.generationCreated(event.generation,
+                    event.topScoreSoFar, event.isLastGeneration,
+                    event.observable);
+            } catch (RuntimeException re) {
+                re.printStackTrace();
+            }
+            if (event.isLastGeneration) {
+                synchronized (this) {
+                    this.lastDelivered = true;
+                    this.dispatcher = null;
+                    notifyAll();
+                }
+                done = true;
+            }
+        }
+        return done;
+    }
+
+    /**
+     * A generation waiting for the observer.
+     */
+    private static class Event {
+        private final Generation generation;
+        private final int topScoreSoFar;
+        private final boolean isLastGeneration;
+        private final EvolutionObservable observable;
+
+        Event(Generation generation, int topScoreSoFar,
+                boolean isLastGeneration, EvolutionObservable observable) {
+            this.generation = generation;
+            this.topScoreSoFar = topScoreSoFar;
+            this.isLastGeneration = isLastGeneration;
+            this.observable = observable;
+        }
+    }
+
+    /**
+     * The state of an EvolutionObservable at the moment a generation was
+     * queued, so that the observer sees the state which went with the
+     * generation rather than the state the evolution has since reached.
+     */
+    private static class ObservableSnapshot implements EvolutionObservable {
+        private final EvolutionObservable observable;
+        private final int topScore;
+        private final Chromosome[] topScorers;
+        private final int numOfGenerationsRun;
+
+        ObservableSnapshot(EvolutionObservable observable) {
+            this.observable = observable;
+            this.topScore = observable.getTopScore();
+            this.topScorers = observable.getTopScorers();
+            this.numOfGenerationsRun = observable.getNumberOfGenerationsRun();
+        }
+
+        public void addEvolutionObserver(EvolutionObserver observer) {
+            this.observable.addEvolutionObserver(observer);
+        }
+
+        public void removeEvolutionObserver(EvolutionObserver observer) {
+            this.observable.removeEvolutionObserver(observer);
+        }
+
+        public int getTopScore() {
+            return this.topScore;
+        }
+
+        public Chromosome[] getTopScorers() {
+            return (Chromosome[])this.topScorers.clone();
+        }
+
+        public int getNumberOfGenerationsRun() {
+            return this.numOfGenerationsRun;
+        }
+    }
+
+}
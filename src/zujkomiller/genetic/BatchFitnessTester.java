@@ -0,0 +1,53 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A BatchFitnessTester is a FitnessTester which can score a whole block
+ * of Chromosomes in one call.  Scoring a block at a time lets an
+ * implementation set up its working state once and reuse it for every
+ * Chromosome in the block, rather than once per Chromosome.
+ * <p>
+ * FitnessTesters which do not implement this interface can still be
+ * used wherever a BatchFitnessTester is needed by wrapping them in a
+ * BatchTesterAdapter.  The thread-safety rules described in
+ * FitnessTester apply to this interface as well: blocks of the same
+ * generation may be scored on several threads at once.
+ */
+public interface BatchFitnessTester extends FitnessTester {
+
+    /**
+     * Scores the Chromosomes from index start (inclusive) to index
+     * end (exclusive) and stores each score in the scores array at
+     * the same index as its Chromosome.  The scores must be the same
+     * as those getFitnessScore would return for each Chromosome.
+     *
+     * @param chromosomes The Chromosomes to be scored.
+     * @param start The index of the first Chromosome to score.
+     * @param end One past the index of the last Chromosome to score.
+     * @param scores The array receiving the scores; it must be at
+     *  least as long as end.
+     */
+    public void getFitnessScores(Chromosome[] chromosomes, int start,
+        int end, int[] scores);
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A BatchTesterAdapter lets an ordinary FitnessTester be used where a
+ * BatchFitnessTester is needed by scoring the Chromosomes of a block
+ * one at a time.
+ */
+public class BatchTesterAdapter implements BatchFitnessTester {
+
+    private final FitnessTester tester;
+
+    public BatchTesterAdapter(FitnessTester tester) {
+        this.tester = tester;
+    }
+
+    /**
+     * @return The given FitnessTester if it is already a
+     *  BatchFitnessTester, otherwise a BatchTesterAdapter wrapping it.
+     */
+    public static BatchFitnessTester adapt(FitnessTester tester) {
+        BatchFitnessTester batchTester = null;
+        if (tester instanceof BatchFitnessTester) {
+            batchTester = (BatchFitnessTester)tester;
+        } else {
+            batchTester = new BatchTesterAdapter(tester);
+        }
+        return batchTester;
+    }
+
+    public int getFitnessScore(Chromosome chromosome) {
+        return this.tester.getFitnessScore(chromosome);
+    }
+
+    public void getFitnessScores(Chromosome[] chromosomes, int start,
+            int end, int[] scores) {
+        for (int i=start; i<end; i++) {
+            scores[i] = this.tester.getFitnessScore(chromosomes[i]);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A BoundedFitnessTester is a BatchFitnessTester which can stop testing
+ * a Chromosome part way through once the Chromosome can no longer score
+ * as high as a given bar.  The Evolver uses this when early exits are
+ * turned on (see Evolver.setEarlyExit), passing the lowest score which
+ * could still get a Chromosome replicated into the next generation.
+ * <p>
+ * A score at or above the bar is always the Chromosome's true score.  A
+ * score below the bar may instead be an upper bound on the true score:
+ * the most the Chromosome could have scored when its test was stopped.
+ */
+public interface BoundedFitnessTester extends BatchFitnessTester {
+
+    /**
+     * Returns the fitness score of the Chromosome if it is at least
+     * bar, otherwise either the score or an upper bound on it which
+     * is less than bar.
+     */
+    public int getFitnessScore(Chromosome chromosome, int bar);
+
+    /**
+     * Scores the Chromosomes from index start (inclusive) to index
+     * end (exclusive) as getFitnessScore(Chromosome, int) would, and
+     * stores each score in the scores array at the same index as its
+     * Chromosome.
+     *
+     * @param chromosomes The Chromosomes to be scored.
+     * @param start The index of the first Chromosome to score.
+     * @param end One past the index of the last Chromosome to score.
+     * @param scores The array receiving the scores; it must be at
+     *  least as long as end.
+     * @param bar The score below which a test may be stopped early.
+     */
+    public void getFitnessScores(Chromosome[] chromosomes, int start,
+        int end, int[] scores, int bar);
+
+}
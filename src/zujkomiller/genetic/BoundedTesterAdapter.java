@@ -0,0 +1,69 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A BoundedTesterAdapter passes a score bar to a BoundedFitnessTester, so
+ * that it can be handed to a FitnessEvaluator like any other
+ * BatchFitnessTester.  A PopulationScorer keeps one and sets its bar
+ * before scoring each generation with early exits turned on; the bar
+ * must not be changed while a batch is being scored.
+ */
+public class BoundedTesterAdapter implements BatchFitnessTester {
+
+    private final BoundedFitnessTester tester;
+    private int bar;
+
+    /**
+     * @param tester The BoundedFitnessTester which provides the scores.
+     * @param bar The score below which a test may be stopped early.
+     */
+    public BoundedTesterAdapter(BoundedFitnessTester tester, int bar) {
+        this.tester = tester;
+        this.bar = bar;
+    }
+
+    /**
+     * @return The score below which a test may be stopped early.
+     */
+    public int getBar() {
+        return this.bar;
+    }
+
+    /**
+     * @param bar The score below which a test may be stopped early.
+     */
+    public void setBar(int bar) {
+        this.bar = bar;
+    }
+
+    public int getFitnessScore(Chromosome chromosome) {
+        return this.tester.getFitnessScore(chromosome, this.bar);
+    }
+
+    public void getFitnessScores(Chromosome[] chromosomes, int start,
+            int end, int[] scores) {
+        this.tester.getFitnessScores(chromosomes, start, end, scores,
+            this.bar);
+    }
+
+}
@@ -0,0 +1,306 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+import zujkomiller.genetic.linear.PackedChromosome;
+import java.util.*;
+
+/**
+ * A CachingFitnessTester remembers the scores another FitnessTester gives
+ * to gene strings and reuses them for later Chromosomes with the same
+ * genes, so that replicated and unchanged Chromosomes are not scored
+ * again from scratch.  It can only be used with a FitnessTester whose
+ * score for a Chromosome depends on nothing but the Chromosome's genes.
+ * <p>
+ * The cache holds at most a fixed number of gene strings; when it is
+ * full, the least recently used one is forgotten.  The cache may be used
+ * from several threads at once as long as the FitnessTester it wraps may
+ * be (see FitnessTester).
+ * <p>
+ * When the wrapped tester is a BoundedFitnessTester, a score bar passed
+ * to the cache is passed on to it for the Chromosomes not found in the
+ * cache.  Only the scores at or above the bar are remembered, since the
+ * ones below it may be upper bounds rather than true scores.
+ */
+public class CachingFitnessTester implements BoundedFitnessTester {
+
+    private final BatchFitnessTester tester;
+    private final int capacity;
+    private final LinkedHashMap cache;
+
+    // the working arrays of each thread using the cache
+    private final ThreadLocal scratch = new ThreadLocal() {
+        protected Object initialValue() {
+            return new Scratch();
+        }
+    };
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param tester The FitnessTester whose scores are cached.
+     * @param capacity The largest number of gene strings to remember.
+     *  Must be at least one.
+     */
+    public CachingFitnessTester(FitnessTester tester, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of a fitness " +
+                "cache must be at least one.");
+        }
+        this.tester = BatchTesterAdapter.adapt(tester);
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry eldest) {
+                boolean remove = size() > CachingFitnessTester.this.capacity;
+                if (remove) {
+                    evictions++;
+                }
+                return remove;
+            }
+        };
+    }
+
+    public int getFitnessScore(Chromosome chromosome) {
+        return getFitnessScore(chromosome, Integer.MIN_VALUE);
+    }
+
+    public int getFitnessScore(Chromosome chromosome, int bar) {
+        Scratch work = (Scratch)this.scratch.get();
+        work.single[0] = chromosome;
+        getFitnessScores(work.single, 0, 1, work.singleScore, bar);
+        work.single[0] = null;
+        return work.singleScore[0];
+    }
+
+    /**
+     * Looks each Chromosome up in the cache and passes the ones not
+     * found on to the wrapped tester as a single batch.
+     */
+    public void getFitnessScores(Chromosome[] chromosomes, int start,
+            int end, int[] scores) {
+        getFitnessScores(chromosomes, start, end, scores, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Looks each Chromosome up in the cache and passes the ones not
+     * found on to the wrapped tester as a single batch, along with the
+     * bar if the wrapped tester is a BoundedFitnessTester.  The lookups
+     * use working arrays kept for each thread, so a batch which is
+     * found entirely in the cache allocates nothing.
+     */
+    public void getFitnessScores(Chromosome[] chromosomes, int start,
+            int end, int[] scores, int bar) {
+        Scratch work = (Scratch)this.scratch.get();
+        work.ensureCapacity(end - start);
+        GeneKey probe = work.probe;
+        Chromosome[] unknown = work.unknown;
+        int[] unknownIndexes = work.unknownIndexes;
+        int numUnknown = 0;
+        for (int i=start; i<end; i++) {
+            work.genes = copyGenes(chromosomes[i], work.genes);
+            probe.set(work.genes, chromosomes[i].getSize());
+            Integer score = null;
+            synchronized (this.cache) {
+                score = (Integer)this.cache.get(probe);
+                if (score != null) {
+                    this.hits++;
+                } else {
+                    this.misses++;
+                }
+            }
+            if (score != null) {
+                scores[i] = score.intValue();
+            } else {
+                unknown[numUnknown] = chromosomes[i];
+                unknownIndexes[numUnknown] = i;
+                numUnknown++;
+            }
+        }
+
+        if (numUnknown > 0) {
+            int[] unknownScores = work.unknownScores;
+            if (bar != Integer.MIN_VALUE &&
+                    this.tester instanceof BoundedFitnessTester) {
+                ((BoundedFitnessTester)this.tester).getFitnessScores(unknown,
+                    0, numUnknown, unknownScores, bar);
+            } else {
+                this.tester.getFitnessScores(unknown, 0, numUnknown,
+                    unknownScores);
+                bar = Integer.MIN_VALUE;
+            }
+            for (int n=0; n<numUnknown; n++) {
+                scores[unknownIndexes[n]] = unknownScores[n];
+                // a score below the bar may only be an upper bound
+                if (unknownScores[n] >= bar) {
+                    work.genes = copyGenes(unknown[n], work.genes);
+                    GeneKey key = new GeneKey();
+                    key.set(copyOf(work.genes, unknown[n].getSize()),
+                        unknown[n].getSize());
+                    synchronized (this.cache) {
+                        this.cache.put(key, Integer.valueOf(unknownScores[n]));
+                    }
+                }
+                unknown[n] = null;
+            }
+        }
+    }
+
+    /**
+     * @return The genes of the Chromosome, copied into the given array
+     *  if it is long enough or into a new one if it is not.
+     */
+    private static short[] copyGenes(Chromosome chrom, short[] genes) {
+        int size = chrom.getSize();
+        if (genes.length < size) {
+            genes = new short[size];
+        }
+        if (chrom instanceof PopulationChromosome) {
+            ((PopulationChromosome)chrom).getGenes(genes);
+        } else if (chrom instanceof PackedChromosome) {
+            ((PackedChromosome)chrom).getGenes(genes);
+        } else {
+            // getGenes() may return a new array, so read them one by one
+            for (int n=0; n<size; n++) {
+                genes[n] = chrom.getGeneAtIndex(n);
+            }
+        }
+        return genes;
+    }
+
+    private static short[] copyOf(short[] genes, int length) {
+        short[] copy = new short[length];
+        System.arraycopy(genes, 0, copy, 0, length);
+        return copy;
+    }
+
+    /**
+     * @return The number of Chromosomes whose scores were found
+     *  in the cache.
+     */
+    public long getHits() {
+        synchronized (this.cache) {
+            return this.hits;
+        }
+    }
+
+    /**
+     * @return The number of Chromosomes which had to be scored
+     *  by the wrapped tester.
+     */
+    public long getMisses() {
+        synchronized (this.cache) {
+            return this.misses;
+        }
+    }
+
+    /**
+     * @return The number of gene strings forgotten to make room
+     *  for newer ones.
+     */
+    public long getEvictions() {
+        synchronized (this.cache) {
+            return this.evictions;
+        }
+    }
+
+    /**
+     * @return The fraction of lookups which were found in the
+     *  cache, from 0 to 1.
+     */
+    public double getHitRate() {
+        synchronized (this.cache) {
+            long lookups = this.hits + this.misses;
+            return (lookups == 0) ? 0.0 : ((double)this.hits / lookups);
+        }
+    }
+
+    /**
+     * @return The hits, misses, evictions and hit rate of the cache.
+     */
+    public String toString() {
+        return "fitness cache of " + this.capacity + ": " + getHits() +
+            " hits, " + getMisses() + " misses, " + getEvictions() +
+            " evictions, hit rate " + Math.round(getHitRate() * 100) + "%";
+    }
+
+    /**
+     * The working arrays used by one thread to look Chromosomes up,
+     * which grow to fit the largest batch it has looked up.
+     */
+    private static class Scratch {
+        final GeneKey probe = new GeneKey();
+        final Chromosome[] single = new Chromosome[1];
+        final int[] singleScore = new int[1];
+        short[] genes = new short[0];
+        Chromosome[] unknown = new Chromosome[0];
+        int[] unknownIndexes = new int[0];
+        int[] unknownScores = new int[0];
+
+        void ensureCapacity(int size) {
+            if (this.unknown.length < size) {
+                this.unknown = new Chromosome[size];
+                this.unknownIndexes = new int[size];
+                this.unknownScores = new int[size];
+            }
+        }
+    }
+
+    /**
+     * A gene string used as a key in the cache.  The probe key used for
+     * lookups wraps a working array; the keys stored in the cache each
+     * have their own copy of the genes.
+     */
+    private static class GeneKey {
+        private short[] genes;
+        private int length;
+        private int hash;
+
+        void set(short[] genes, int length) {
+            this.genes = genes;
+            this.length = length;
+            int h = length;
+            for (int n=0; n<length; n++) {
+                h = (31 * h) + genes[n];
+            }
+            this.hash = h;
+        }
+
+        public int hashCode() {
+            return this.hash;
+        }
+
+        public boolean equals(Object other) {
+            boolean isEqual = false;
+            if (other instanceof GeneKey) {
+                GeneKey key = (GeneKey)other;
+                isEqual = (key.hash == this.hash && key.length == this.length);
+                for (int n=0; n<this.length && isEqual; n++) {
+                    isEqual = (key.genes[n] == this.genes[n]);
+                }
+            }
+            return isEqual;
+        }
+    }
+
+}
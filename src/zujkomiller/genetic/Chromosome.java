@@ -72,6 +72,17 @@ public interface Chromosome extends Comparator, Serializable {
      */
     public int getSize();
 
+    /**
+     * A Chromosome is dirty from the time its genes are changed through
+     * setGenes or setGeneAtIndex (or any other method which changes them)
+     * until its fitness score is next set.  A Chromosome which is not
+     * dirty still has the score its genes were given, and need not be
+     * scored again.
+     *
+     * @return true if the Chromosome needs to be scored.
+     */
+    public boolean isDirty();
+
     /**
      * @return A Clone of this Chromosome which has the same
      *  genes as this Chromosome, but which does not have any
@@ -25,6 +25,11 @@ package zujkomiller.genetic;
  * Classes implementing this interface, EvolutionObserver, may register 
  * themselves with classes which implement EvolutionObservable so that they
  * will be notified when new generations are created and tested for fitness.
+ * <p>
+ * An EvolutionObservable may recycle the storage of its generations (see
+ * Evolver.setDoubleBuffered), in which case the Generation passed to
+ * generationCreated is only valid until that call returns.  An observer
+ * which keeps a Generation should keep Generation.snapshot() instead.
  */
 public interface EvolutionObserver {
 
@@ -21,8 +21,8 @@
 
 package zujkomiller.genetic;
 
-import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Evolver controls the execution of the genetic algorithm. 
@@ -34,6 +34,8 @@ import java.util.*;
  * for each type of Chromosome.)  After a generation has been created, 
  * the Evolver passes it to an implementation of the FitnessTester interface 
  * which assigns fitness scores to each individual Chromosome in the generation.
+ * The scoring itself is done by a FitnessEvaluator, which may spread the
+ * work for each generation across several threads.
  */
 public class Evolver implements EvolutionObservable {
 
@@ -41,31 +43,47 @@ public class Evolver implements EvolutionObservable {
     public static final short LEAF_TREE = 1;
     public static final short NODE_TREE = 2;
 
-    private GenerationProducer producer = null;
-    private FitnessTester tester = null;
-    private short chromType = LINEAR;
-    private short alphabetSize = 0;
-    private short minChromLength = 0;
-    private short maxChromLength = 0;
-    private short populationSize = 0;
-    private short mutationsPerGen = 0;
-    private short crossoversPerGen = 0;
-    private short numToReplicate = 0;
-    private short numOfTimes = 0;
-    private short numOfGenerations = 0;
-    private int stopAtScore = 0;
-    private boolean doStopAtScore = true;
-    private boolean allowDuplicates = false;
+    protected GenerationProducer producer = null;
+    protected FitnessTester tester = null;
+    protected FitnessEvaluator evaluator = null;
+    protected int parallelism = 1;
+    protected int producerParallelism = 1;
+    protected short chromType = LINEAR;
+    protected short alphabetSize = 0;
+    protected short minChromLength = 0;
+    protected short maxChromLength = 0;
+    protected short populationSize = 0;
+    protected short mutationsPerGen = 0;
+    protected short crossoversPerGen = 0;
+    protected short numToReplicate = 0;
+    protected short numOfTimes = 0;
+    protected short numOfGenerations = 0;
+    protected int stopAtScore = 0;
+    protected boolean doStopAtScore = true;
+    protected boolean allowDuplicates = false;
+    protected boolean packGenes = false;
+    protected boolean doubleBuffered = false;
+    protected boolean earlyExit = false;
+    protected SelectionStrategy selection = null;
+    protected long randomSeed = 0;
+    protected boolean seeded = false;
+
+    // the RandomSource of the current run, which each producer
+    // is given its own split of
+    protected RandomSource random = null;
+
+    // scores each generation, keeping its working arrays between them
+    private PopulationScorer scorer = null;
 
     // keep track of all top scoring Chromosomes
     // and what the top score is so far
-    private ArrayList topScorers = new ArrayList();
-    private int topScoreSoFar = 0;
-    private int numOfGenerationsRun = 0;
+    protected ArrayList topScorers = new ArrayList();
+    protected int topScoreSoFar = 0;
+    protected int numOfGenerationsRun = 0;
 
     // keep track of observers
-    private ArrayList observers = new ArrayList();
-    private Object observableObject = new Object();
+    protected ArrayList observers = new ArrayList();
+    protected Object observableObject = new Object();
 
     /**
      * Sets the type of chromosome which will be used.
@@ -107,6 +125,65 @@ public class Evolver implements EvolutionObservable {
         this.allowDuplicates = allowDuplicates;
     }
 
+    /**
+     * If the value passed in as a parameter is true, then the genes
+     * of each Chromosome are packed into 2, 4 or 8 bits apiece,
+     * depending on the alphabet size, instead of a short apiece.
+     * This has no effect if the alphabet has more than 256 values.
+     */
+    public void setPackGenes(boolean packGenes) {
+        this.packGenes = packGenes;
+    }
+
+    /**
+     * If the value passed in as a parameter is true, then the Evolver
+     * keeps two Populations and writes each new generation into the one
+     * holding the generation before last, so that no new gene storage is
+     * allocated from one generation to the next.  The Generation passed
+     * to each EvolutionObserver is then only valid until the observer
+     * returns (see EvolutionObserver).
+     */
+    public void setDoubleBuffered(boolean doubleBuffered) {
+        this.doubleBuffered = doubleBuffered;
+    }
+
+    /**
+     * Seeds the random choices made while evolving, so that a run
+     * with the same seed and settings produces the same generations.
+     * Without a seed, every run is different.
+     */
+    public void setRandomSeed(long seed) {
+        this.randomSeed = seed;
+        this.seeded = true;
+    }
+
+    /**
+     * If the value passed in as a parameter is true, and the
+     * FitnessTester is a BoundedFitnessTester, then each new Chromosome
+     * is tested only until it can no longer reach the highest ranks
+     * which the producer puts in order: the top scorers it replicates
+     * and the pairs it crosses over.  A Chromosome whose test is
+     * stopped is given an upper bound on its score rather than the
+     * score itself.  Those ranks are always exact, but the lowest
+     * scorers dropped from each generation are chosen using the
+     * bounds, so a seeded run can differ from one without early exits.
+     */
+    public void setEarlyExit(boolean earlyExit) {
+        this.earlyExit = earlyExit;
+        this.scorer = null;
+    }
+
+    /**
+     * Sets how the parents of each new generation are chosen (see
+     * GenerationProducer.setSelectionStrategy).  If none is set, the
+     * top numToReplicate scorers are replicated numOfTimes each.  With
+     * early exit, the scores of Chromosomes below the ranks the producer
+     * orders may still be upper bounds whichever strategy is set.
+     */
+    public void setSelectionStrategy(SelectionStrategy selection) {
+        this.selection = selection;
+    }
+
     /**
      * Sets minimum and maximum number of genes which
      * can exist in any Chromosome.  To make fixed-length
@@ -191,6 +268,48 @@ public class Evolver implements EvolutionObservable {
      */
     public void setFitnessTester(FitnessTester tester) {
         this.tester = tester;
+        this.scorer = null;
+    }
+
+    /**
+     * Sets the number of threads used to score each generation.
+     * If this is greater than one, the FitnessTester will be called
+     * from several threads at once and must be thread-safe.  This is
+     * ignored if a FitnessEvaluator has been set explicitly.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be " +
+                "at least one.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the number of threads used to do the crossovers and
+     * mutations of each new generation.  If this is greater than one,
+     * the new generation is split into that many chunks, each crossed
+     * over and mutated by its own producer with its own share of the
+     * crossovers and mutations per generation.  The highest scorer is
+     * still carried over unchanged.  This is ignored by an
+     * IslandEvolver, whose islands are already produced in parallel.
+     */
+    public void setProducerParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The producer parallelism " +
+                "must be at least one.");
+        }
+        this.producerParallelism = parallelism;
+    }
+
+    /**
+     * @param evaluator The FitnessEvaluator which will be used to
+     *  score each generation.  If none is set, a SerialEvaluator or
+     *  a ParallelEvaluator is created according to the parallelism.
+     *  An evaluator set here is not shut down by the Evolver.
+     */
+    public void setFitnessEvaluator(FitnessEvaluator evaluator) {
+        this.evaluator = evaluator;
     }
 
     /**
@@ -260,103 +379,232 @@ public class Evolver implements EvolutionObservable {
     public Chromosome[] evolve() {
         Chromosome[] finalGeneration = null;
         if (getReadyToEvolve()) {
-            createProducer();
-            Chromosome[] initialPopulation =
-                this.producer.createInitialGeneration(this.populationSize);
-            Chromosome[] nextGen = initialPopulation;
-            boolean lastGenerationProcessed = false;
-            for (int n=1; n<this.numOfGenerations; n++) {
-                // test the population
-                for (int i=0; i<nextGen.length; i++) {
-                    int score = tester.getFitnessScore(nextGen[i]);
-                    nextGen[i].setFitnessScore(score);
+            this.random = createRandomSource();
+            this.producer = createProducer();
+            ExecutorService producerExecutor = null;
+            if (this.producerParallelism > 1) {
+                producerExecutor = createProducerExecutor();
+                this.producer.setChunkProducers(createChunkProducers
+                    (this.producerParallelism), producerExecutor);
+            }
+            FitnessEvaluator stage = this.evaluator;
+            if (stage == null) {
+                stage = (this.parallelism > 1)
+                    ? (FitnessEvaluator)new ParallelEvaluator(this.parallelism)
+                    : (FitnessEvaluator)new SerialEvaluator();
+            }
+            try {
+                finalGeneration = runGenerations(stage);
+            } finally {
+                if (stage != this.evaluator) {
+                    stage.shutdown();
                 }
+                if (producerExecutor != null) {
+                    producerExecutor.shutdown();
+                }
+            }
+        }
+        return finalGeneration;
+    }
 
-                // keep track of the top scoring Chromosomes
-                // and what the top score is for each generation
-                trackTopScorers(nextGen);
+    private Chromosome[] runGenerations(FitnessEvaluator stage) {
+        Chromosome[] finalGeneration = null;
+        Population population =
+            this.producer.createInitialPopulation(this.populationSize);
+        Population spare = null;
+        Generation gen = null;
+        boolean lastGenerationProcessed = false;
+        for (int n=1; n<this.numOfGenerations; n++) {
+            // test the individuals which have changed
+            evaluateDirty(stage, population);
+
+            // keep track of the top scoring Chromosomes
+            // and what the top score is for each generation
+            trackTopScorers(population);
+
+            this.numOfGenerationsRun++;
+
+            boolean isLastGeneration =
+                this.doStopAtScore && this.topScoreSoFar >= this.stopAtScore;
+
+            // let the observers know that a generation was created
+            // and has been tested for fitness
+            gen = describeGeneration(gen, population);
+            notifyObservers(gen, isLastGeneration);
+
+            // if we've reached the stopAtScore value,
+            // then break the loop if doStopAtScore is true
+            if (isLastGeneration) {
+                lastGenerationProcessed = true;
+                break;
+            }
 
-                this.numOfGenerationsRun++;
+            if (this.doubleBuffered) {
+                if (spare == null) {
+                    spare = producer.createPopulation(population.getSize());
+                }
+                producer.getNextGeneration(population, spare);
+                Population parent = population;
+                population = spare;
+                spare = parent;
+            } else {
+                population = producer.getNextGeneration(population);
+            }
+        }
 
-                boolean isLastGeneration =
-                    this.doStopAtScore && this.topScoreSoFar >= this.stopAtScore;
+        if (!lastGenerationProcessed) {
+            // put fitness scores on the finalGeneration
+            evaluateDirty(stage, population);
+            finalGeneration = population.getChromosomes();
+            // keep track of the top scoring Chromosomes
+            // and what the top score is for each generation
+            trackTopScorers(population);
+
+            this.numOfGenerationsRun++;
+
+            // let the observers know that the finalGeneration
+            //  was created and has been tested for fitness
+            gen = describeGeneration(gen, population);
+            notifyObservers(gen, true);
+        } // end if lastGenerationProcessed not processed yet
+        return finalGeneration;
+    }
 
-                // let the observers know that a generation was created
-                // and has been tested for fitness
-                Generation gen = new Generation(nextGen, this.numOfGenerationsRun);
-                synchronized (this.observableObject) {
-                    int size = this.observers.size();
-                    for (int i=0; i<size; i++) {
-                        ((EvolutionObserver)observers.get(i)).
-                            generationCreated(gen, this.topScoreSoFar,
-                                isLastGeneration, this);
-                    }
-                }
+    /**
+     * Scores only the dirty individuals of the Population: those
+     * which are new or which crossovers and mutations have changed.
+     * The rest still have the scores their genes were given before.
+     * With early exits, individuals whose scores are only upper bounds
+     * are scored again if they might now reach the score bar, which is
+     * set so that every individual the producer keeps has an exact
+     * score (see PopulationScorer).
+     */
+    protected void evaluateDirty(FitnessEvaluator stage,
+            Population population) {
+        if (this.scorer == null) {
+            this.scorer = createScorer();
+        }
+        this.scorer.evaluate(stage, population,
+            this.producer.getNumToRank());
+    }
 
-                // if we've reached the stopAtScore value,
-                // then break the loop if doStopAtScore is true
-                if (isLastGeneration) {
-                    lastGenerationProcessed = true;
-                    break;
-                }
+    /**
+     * @return A new PopulationScorer for the FitnessTester, with early
+     *  exits if they are turned on.
+     */
+    protected PopulationScorer createScorer() {
+        return new PopulationScorer(this.tester, this.earlyExit);
+    }
+
+    /**
+     * @return A Generation describing the given Population: the
+     *  previous Generation, updated, when double-buffered, otherwise
+     *  a new one.
+     */
+    protected Generation describeGeneration(Generation previous,
+            Population population) {
+        Generation gen = null;
+        if (this.doubleBuffered && previous != null) {
+            previous.update(population, this.numOfGenerationsRun);
+            gen = previous;
+        } else {
+            gen = new Generation(population, this.numOfGenerationsRun);
+        }
+        return gen;
+    }
 
-                nextGen = producer.getNextGeneration(nextGen);
+    /**
+     * Lets the observers know that a generation was created
+     * and has been tested for fitness.
+     */
+    protected void notifyObservers(Generation gen, boolean isLastGeneration) {
+        synchronized (this.observableObject) {
+            int size = this.observers.size();
+            for (int i=0; i<size; i++) {
+                ((EvolutionObserver)observers.get(i)).
+                    generationCreated(gen, this.topScoreSoFar,
+                        isLastGeneration, this);
             }
+        }
+    }
 
-            if (!lastGenerationProcessed) {
-                // put fitness scores on the finalGeneration
-                finalGeneration = nextGen;
-                for (int i=0; i<nextGen.length; i++) {
-                    int score = tester.getFitnessScore(nextGen[i]);
-                    nextGen[i].setFitnessScore(score);
-                }
-                // keep track of the top scoring Chromosomes
-                // and what the top score is for each generation
-                trackTopScorers(nextGen);
-
-                this.numOfGenerationsRun++;
-
-                // let the observers know that the finalGeneration
-                //  was created and has been tested for fitness
-                Generation gen = new Generation(finalGeneration,
-                    this.numOfGenerationsRun);
-                synchronized (this.observableObject) {
-                    int size = this.observers.size();
-                    for (int i=0; i<size; i++) {
-                        ((EvolutionObserver)observers.get(i)).
-                            generationCreated(gen, this.topScoreSoFar,
-                                true, this);
-                    }
-                }
-            } // end if lastGenerationProcessed not processed yet
+    /**
+     * @return The RandomSource for a new run: one seeded with the
+     *  random seed, if one has been set.
+     */
+    protected RandomSource createRandomSource() {
+        return this.seeded ? new RandomSource(this.randomSeed)
+            : new RandomSource();
+    }
+
+    /**
+     * @return A new GenerationProducer for the type of Chromosome
+     *  and the settings given to this Evolver, with its own split
+     *  of the run's RandomSource.
+     */
+    protected GenerationProducer createProducer() {
+        return createProducer(this.crossoversPerGen, this.mutationsPerGen);
+    }
+
+    /**
+     * @return The producers for the given number of chunks of each
+     *  new generation, which share out the crossovers and mutations
+     *  per generation between them.
+     */
+    protected GenerationProducer[] createChunkProducers(int numOfChunks) {
+        GenerationProducer[] producers = new GenerationProducer[numOfChunks];
+        for (int c=0; c<numOfChunks; c++) {
+            producers[c] = createProducer
+                (share(this.crossoversPerGen, c, numOfChunks),
+                    share(this.mutationsPerGen, c, numOfChunks));
         }
-        return finalGeneration;
+        return producers;
     }
 
-    private void createProducer() {
-        ProducerFactory factory = new ProducerFactory();
-        Class producerClass = factory.getProducerClass
-            (this.minChromLength, this.maxChromLength,
-                this.allowDuplicates, this.chromType);
-        Constructor[] constructors = producerClass.getConstructors();
-        Constructor constructor = constructors[0];
-        Object[] args = new Object[5];
+    private static int share(int total, int chunk, int numOfChunks) {
+        return ((total * (chunk + 1)) / numOfChunks) -
+            ((total * chunk) / numOfChunks);
+    }
+
+    private ExecutorService createProducerExecutor() {
+        return Executors.newFixedThreadPool(this.producerParallelism,
+            new ThreadFactory() {
+                private int count = 0;
+                public synchronized Thread newThread(Runnable r) {
+                    count++;
+                    Thread thread = new Thread(r, "producer-" + count);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    }
+
+    /**
+     * @return A new GenerationProducer like the one createProducer()
+     *  returns, but doing the given numbers of crossovers and mutations
+     *  per generation.
+     */
+    protected GenerationProducer createProducer(int crossovers,
+            int mutations) {
         short[] alphabet = new short[this.alphabetSize];
         for (short n=0; n<this.alphabetSize; n++) {
             alphabet[n] = n;
         }
-        try {
-            this.producer = (GenerationProducer)constructor.newInstance
-                (new Object[]{alphabet, new Integer(this.numToReplicate),
-                    new Integer(this.numOfTimes), new Integer(this.crossoversPerGen),
-                    new Integer(this.mutationsPerGen), new Integer(this.minChromLength),
-                    new Integer(this.maxChromLength)});
-        } catch (Exception tie) {
-            tie.printStackTrace();
+        GenerationProducer newProducer = ProducerFactory.createProducer
+            (alphabet, this.numToReplicate, this.numOfTimes,
+                crossovers, mutations,
+                this.minChromLength, this.maxChromLength,
+                this.allowDuplicates, this.chromType);
+        newProducer.setRandomSource(this.random.split());
+        newProducer.setSelectionStrategy(this.selection);
+        if (this.packGenes) {
+            newProducer.setBitsPerGene
+                (GenePacking.getBitsPerGene(this.alphabetSize));
         }
+        return newProducer;
     }
 
-    private boolean getReadyToEvolve() {
+    protected boolean getReadyToEvolve() {
         boolean ready = true;
         ready = ready
             && (this.tester != null)
@@ -370,28 +618,38 @@ public class Evolver implements EvolutionObservable {
         return ready;
     }
 
-    private void trackTopScorers(Chromosome[] generation) {
-        if (generation.length > 0) {
-            // sort the generation so the top scorers are at the
-            // beginning of the array
-            Arrays.sort(generation, 0, generation.length, generation[0]);
-            int newTopScore = generation[0].getFitnessScore();
+    protected void trackTopScorers(Population population) {
+        if (population.getSize() > 0) {
+            int newTopScore = population.getTopScore();
             if (newTopScore > this.topScoreSoFar) {
                 this.topScorers.clear();
             }
             if (newTopScore >= this.topScoreSoFar) {
                 this.topScoreSoFar = newTopScore;
-                for (int n=0; n<generation.length; n++) {
-                    if (generation[n].getFitnessScore() == this.topScoreSoFar) {
-                        if (!(this.topScorers.contains(generation[n]))) {
-                            this.topScorers.add(generation[n]);
-                        }
-                    } else {
-                        break;
+                int[] scores = population.getScores();
+                for (int n=0; n<scores.length; n++) {
+                    if (scores[n] == this.topScoreSoFar &&
+                            !isTopScorer(population, n)) {
+                        // keep a copy rather than a view, so that
+                        // the whole Population is not held on to
+                        Chromosome chrom =
+                            population.getChromosome(n).getUnscoredClone();
+                        chrom.setFitnessScore(scores[n]);
+                        this.topScorers.add(chrom);
                     }
                 }
             }
         }
     }
 
+    private boolean isTopScorer(Population population, int index) {
+        boolean found = false;
+        int size = this.topScorers.size();
+        for (int n=0; n<size && !found; n++) {
+            found = population.hasSameGenes(index,
+                (Chromosome)this.topScorers.get(n));
+        }
+        return found;
+    }
+
 }
\ No newline at end of file
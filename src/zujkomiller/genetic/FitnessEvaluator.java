@@ -0,0 +1,64 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A FitnessEvaluator is the stage of the genetic algorithm which assigns
+ * a fitness score to every Chromosome in a newly produced generation.
+ * The Evolver hands each generation to its FitnessEvaluator, which in turn
+ * uses a FitnessTester to score the individual Chromosomes.  Different
+ * implementations may score the Chromosomes one after another or divide
+ * the work among several threads.
+ */
+public interface FitnessEvaluator {
+
+    /**
+     * Scores every Chromosome in the generation using the given
+     * FitnessTester and stores the result on each Chromosome by
+     * calling setFitnessScore.  When this method returns, every
+     * Chromosome in the generation has been scored.
+     *
+     * @param generation The Chromosomes to be scored.
+     * @param tester The FitnessTester which provides the scores.
+     */
+    public void evaluate(Chromosome[] generation, FitnessTester tester);
+
+    /**
+     * Scores the Chromosomes from index start (inclusive) to index end
+     * (exclusive) in the same way as evaluate(Chromosome[], FitnessTester),
+     * leaving the rest of the array alone.
+     *
+     * @param generation The array holding the Chromosomes to be scored.
+     * @param start The index of the first Chromosome to score.
+     * @param end One past the index of the last Chromosome to score.
+     * @param tester The FitnessTester which provides the scores.
+     */
+    public void evaluate(Chromosome[] generation, int start, int end,
+        FitnessTester tester);
+
+    /**
+     * Releases any resources (such as threads) held by this
+     * FitnessEvaluator.  It should not be used after this is called.
+     */
+    public void shutdown();
+
+}
@@ -24,6 +24,14 @@ package zujkomiller.genetic;
 /**
  * Any class implementing this interface should be able to judge a Chromosome
  * for fitness and return an int indicating the fitness score.
+ * <p>
+ * Thread-safety: when the Evolver is configured with a parallelism greater
+ * than one, getFitnessScore will be called from several threads at once,
+ * each call with a different Chromosome.  Implementations must therefore
+ * either keep no mutable state between calls, or guard that state
+ * themselves.  The score returned must depend only on the Chromosome
+ * passed in, so that the results of a run do not depend on the order
+ * in which Chromosomes are scored.
  */
 public interface FitnessTester {
 
@@ -0,0 +1,42 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A FullyConnectedTopology sends each island's migrants to every
+ * other island.
+ */
+public class FullyConnectedTopology implements MigrationTopology {
+
+    public int[] getDestinations(int island, int numOfIslands) {
+        int[] destinations = new int[Math.max(numOfIslands - 1, 0)];
+        int index = 0;
+        for (int n=0; n<numOfIslands; n++) {
+            if (n != island) {
+                destinations[index] = n;
+                index++;
+            }
+        }
+        return destinations;
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * GenePacking holds the arithmetic for storing genes from a small
+ * alphabet packed into an array of longs, with 2, 4 or 8 bits per gene.
+ * Because each of those sizes divides 64 evenly, a gene never spans two
+ * words.  The genes of one Chromosome start at a given word offset, so
+ * that several Chromosomes may share one array of words.
+ */
+public abstract class GenePacking {
+
+    private static final int BITS_PER_WORD = 64;
+
+    /**
+     * @return The number of bits needed to store one gene from an
+     *  alphabet of the given size (2, 4 or 8), or zero if the
+     *  alphabet is too large to be packed.
+     */
+    public static int getBitsPerGene(int alphabetSize) {
+        int bits = 0;
+        if (alphabetSize <= 4) {
+            bits = 2;
+        } else if (alphabetSize <= 16) {
+            bits = 4;
+        } else if (alphabetSize <= 256) {
+            bits = 8;
+        }
+        return bits;
+    }
+
+    /**
+     * @return true if genes can be packed with the given
+     *  number of bits per gene.
+     */
+    public static boolean isValidBitsPerGene(int bitsPerGene) {
+        return bitsPerGene == 2 || bitsPerGene == 4 || bitsPerGene == 8;
+    }
+
+    /**
+     * @return The number of longs needed to hold the given
+     *  number of genes.
+     */
+    public static int getNumOfWords(int numOfGenes, int bitsPerGene) {
+        int genesPerWord = BITS_PER_WORD / bitsPerGene;
+        return (numOfGenes + genesPerWord - 1) / genesPerWord;
+    }
+
+    public static short getGene(long[] words, int wordOffset,
+            int bitsPerGene, int index) {
+        int genesPerWord = BITS_PER_WORD / bitsPerGene;
+        int shift = (index % genesPerWord) * bitsPerGene;
+        long mask = (1L << bitsPerGene) - 1;
+        return (short)((words[wordOffset + (index / genesPerWord)] >>> shift)
+            & mask);
+    }
+
+    public static void setGene(long[] words, int wordOffset,
+            int bitsPerGene, int index, short gene) {
+        int genesPerWord = BITS_PER_WORD / bitsPerGene;
+        int shift = (index % genesPerWord) * bitsPerGene;
+        long mask = ((1L << bitsPerGene) - 1) << shift;
+        int word = wordOffset + (index / genesPerWord);
+        words[word] = (words[word] & ~mask) | ((((long)gene) << shift) & mask);
+    }
+
+    /**
+     * Packs the first numOfGenes genes into the words starting at
+     * wordOffset.  Any bits after the last gene are cleared.
+     */
+    public static void pack(short[] genes, int numOfGenes, long[] words,
+            int wordOffset, int bitsPerGene) {
+        int genesPerWord = BITS_PER_WORD / bitsPerGene;
+        int numOfWords = getNumOfWords(numOfGenes, bitsPerGene);
+        long mask = (1L << bitsPerGene) - 1;
+        int index = 0;
+        for (int w=0; w<numOfWords; w++) {
+            long word = 0L;
+            for (int g=0; g<genesPerWord && index<numOfGenes; g++) {
+                word |= (genes[index] & mask) << (g * bitsPerGene);
+                index++;
+            }
+            words[wordOffset + w] = word;
+        }
+    }
+
+    /**
+     * Unpacks numOfGenes genes from the words starting at wordOffset
+     * into the genes array.
+     */
+    public static void unpack(long[] words, int wordOffset, int bitsPerGene,
+            short[] genes, int numOfGenes) {
+        int genesPerWord = BITS_PER_WORD / bitsPerGene;
+        long mask = (1L << bitsPerGene) - 1;
+        int index = 0;
+        int w = wordOffset;
+        while (index < numOfGenes) {
+            long word = words[w];
+            for (int g=0; g<genesPerWord && index<numOfGenes; g++) {
+                genes[index] = (short)(word & mask);
+                word = word >>> bitsPerGene;
+                index++;
+            }
+            w++;
+        }
+    }
+
+    /**
+     * Exchanges the first numOfGenes genes of two packed gene strings,
+     * a whole word at a time except for the last, partial word.
+     */
+    public static void swapPrefix(long[] words1, int wordOffset1,
+            long[] words2, int wordOffset2, int bitsPerGene, int numOfGenes) {
+        int genesPerWord = BITS_PER_WORD / bitsPerGene;
+        int wholeWords = numOfGenes / genesPerWord;
+        for (int w=0; w<wholeWords; w++) {
+            long temp = words1[wordOffset1 + w];
+            words1[wordOffset1 + w] = words2[wordOffset2 + w];
+            words2[wordOffset2 + w] = temp;
+        }
+        int remainingGenes = numOfGenes % genesPerWord;
+        if (remainingGenes > 0) {
+            long mask = (1L << (remainingGenes * bitsPerGene)) - 1;
+            int w1 = wordOffset1 + wholeWords;
+            int w2 = wordOffset2 + wholeWords;
+            long prefix1 = words1[w1] & mask;
+            long prefix2 = words2[w2] & mask;
+            words1[w1] = (words1[w1] & ~mask) | prefix2;
+            words2[w2] = (words2[w2] & ~mask) | prefix1;
+        }
+    }
+
+}
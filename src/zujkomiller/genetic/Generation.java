@@ -21,7 +21,7 @@
 
 package zujkomiller.genetic;
 
-import java.io.Serializable;
+import java.io.*;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -32,29 +32,109 @@ import java.util.Comparator;
  */
 public class Generation implements Serializable, Comparator {
 
+    // unchanged from earlier versions so that stored results stay readable
+    private static final long serialVersionUID = 8878743927726403300L;
+
     protected Chromosome[] individuals;
     protected int generationNumber;
     protected int topScore;
 
+    // the Population whose individuals these are, if any
+    protected Population population = null;
+
+    // whether the individuals have been put in order yet
+    private transient boolean ordered = false;
+
     public Generation(Chromosome[] individuals, int generationNumber) {
         this.individuals = individuals;
         this.generationNumber = generationNumber;
         calculateTopScore();
     }
 
+    /**
+     * Creates a Generation whose individuals are views of the individuals
+     * in the given Population, ordered from the highest score to the
+     * lowest.  They are only put in order when getIndividuals is first
+     * called, sharing the Population's ranking with its producer.
+     */
+    public Generation(Population population, int generationNumber) {
+        update(population, generationNumber);
+    }
+
+    /**
+     * Makes this Generation describe the given Population, so that an
+     * Evolver recycling its Populations can recycle its Generation too.
+     */
+    void update(Population population, int generationNumber) {
+        synchronized (this) {
+            this.population = population;
+            this.individuals = null;
+            this.ordered = false;
+        }
+        this.generationNumber = generationNumber;
+        this.topScore = population.getTopScore();
+    }
+
+    /**
+     * Returns a copy of this Generation which holds its own copy of every
+     * individual.  An Evolver which recycles its Populations passes each
+     * EvolutionObserver a Generation which is only valid until the
+     * observer returns, so an observer which keeps a Generation must keep
+     * a snapshot of it instead.
+     */
+    public Generation snapshot() {
+        Generation copy = null;
+        if (this.population != null) {
+            copy = new Generation(this.population.copy(),
+                this.generationNumber);
+        } else {
+            Chromosome[] chroms = new Chromosome[this.individuals.length];
+            for (int n=0; n<chroms.length; n++) {
+                chroms[n] = this.individuals[n].getUnscoredClone();
+                chroms[n].setFitnessScore
+                    (this.individuals[n].getFitnessScore());
+            }
+            copy = new Generation(chroms, this.generationNumber);
+        }
+        return copy;
+    }
+
+    /**
+     * Finds the top score in a single pass; the individuals are only
+     * sorted if they are asked for.
+     */
     protected void calculateTopScore() {
-        Arrays.sort(individuals, 0, individuals.length, individuals[0]);
-        this.topScore = individuals[0].getFitnessScore();
+        for (int n=0; n<individuals.length; n++) {
+            int score = individuals[n].getFitnessScore();
+            if (n == 0 || score > this.topScore) {
+                this.topScore = score;
+            }
+        }
     }
 
     /**
      * @return The array of Chromosomes comprising the individuals within
-     *  this Generation.
+     *  this Generation, ordered from the highest score to the lowest.
      */
-    public Chromosome[] getIndividuals() {
+    public synchronized Chromosome[] getIndividuals() {
+        if (!this.ordered) {
+            if (this.population != null) {
+                this.individuals = this.population.getChromosomesByScore();
+            } else if (this.individuals.length > 0) {
+                Arrays.sort(individuals, 0, individuals.length,
+                    individuals[0]);
+            }
+            this.ordered = true;
+        }
         return this.individuals;
     }
 
+    // the individuals are put in order before they are written
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getIndividuals();
+        out.defaultWriteObject();
+    }
+
     /**
      * @return An int indicating this Generation's number which shows when this
      *  Generation was produced relative to other Generations.
@@ -103,7 +183,7 @@ public class Generation implements Serializable, Comparator {
         if (obj instanceof Generation) {
             Generation other = (Generation)obj;
             if (other.generationNumber == this.generationNumber &&
-                    other.individuals.equals(this.individuals)) {
+                    other.getIndividuals().equals(getIndividuals())) {
                 isEqual = true;
             }
         }
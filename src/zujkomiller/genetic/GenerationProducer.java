@@ -22,6 +22,7 @@
 package zujkomiller.genetic;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Subclasses of GenerationProducer are responsible for 
@@ -64,6 +65,35 @@ public abstract class GenerationProducer {
     /** maximum length of the Chromosome*/
     protected final int maxLength;
 
+    /**
+     * The number of bits used to store each gene when the Chromosomes
+     * are bit-packed (see GenePacking), or zero when each gene is
+     * stored in a short.
+     */
+    protected int bitsPerGene = 0;
+
+    /**
+     * The source of every random choice the producer makes.  Each
+     * producer has its own, so that producers may run on different
+     * threads without sharing one.
+     */
+    protected RandomSource random = new RandomSource();
+
+    /**
+     * How the parents of each new Population are chosen, or null to
+     * replicate the top scorers numOfReplicationsEach times.
+     */
+    protected SelectionStrategy selection = null;
+
+    // the parents chosen by the SelectionStrategy, kept from one
+    // generation to the next
+    private int[] selected = null;
+
+    // when set, the crossovers and mutations of each new Population
+    // are done in parallel, one chunk of it per producer
+    private GenerationProducer[] chunkProducers = null;
+    private ExecutorService executor = null;
+
     public GenerationProducer(short[] alphabet, int numToReplicate,
             int numOfReplicationsEach, int crossOvers, int mutations,
             int minLength, int maxLength) {
@@ -83,6 +113,88 @@ public abstract class GenerationProducer {
         this.maxLength = maxLength;
     }
 
+    /**
+     * Sets the RandomSource from which this producer makes all of its
+     * random choices.  Giving it a seeded RandomSource makes the
+     * generations it produces repeatable.  This must be called before
+     * the initial generation is created.
+     */
+    public void setRandomSource(RandomSource random) {
+        this.random = random;
+    }
+
+    public RandomSource getRandomSource() {
+        return this.random;
+    }
+
+    /**
+     * Sets how the parents of each new Population are chosen.  With a
+     * SelectionStrategy, every individual of the next generation but
+     * the last is a copy of a parent it chooses, and the highest scorer
+     * is kept at the last index as before.  Without one, the top
+     * numToReplicate scorers are replicated numOfReplicationsEach times
+     * in place of the lowest scorers.  This only affects
+     * getNextGeneration(Population, Population).
+     */
+    public void setSelectionStrategy(SelectionStrategy selection) {
+        this.selection = selection;
+    }
+
+    public SelectionStrategy getSelectionStrategy() {
+        return this.selection;
+    }
+
+    /**
+     * Has the crossovers and mutations of each new Population done in
+     * parallel on the executor's threads, each of the producers given
+     * using its own RandomSource.  All of the crossovers are done before
+     * the mutations.  Producers which cross the ranked pairs each cross
+     * their share of those pairs, in order; otherwise each producer
+     * crosses over, and always mutates, one contiguous chunk of the
+     * individuals of the next generation, apart from the highest scorer
+     * kept at the last index.  The producers should be of the same
+     * kind as this one, each set up to do its share of this producer's
+     * crossovers and mutations.  This only affects
+     * getNextGeneration(Population, Population).
+     *
+     * @param producers The producer for each chunk, or null to do the
+     *  crossovers and mutations on the calling thread.
+     * @param executor The threads on which to run the chunks.
+     */
+    public void setChunkProducers(GenerationProducer[] producers,
+            ExecutorService executor) {
+        if (producers != null && executor == null) {
+            throw new IllegalArgumentException("An executor is needed " +
+                "to run the chunk producers.");
+        }
+        this.chunkProducers = producers;
+        this.executor = executor;
+    }
+
+    /**
+     * Tells this producer to create Chromosomes which pack their genes
+     * into the given number of bits (2, 4 or 8), or to store each gene
+     * in a short if bits is zero.  Every value in the alphabet must fit
+     * into the number of bits given.  This must be called before the
+     * initial generation is created.
+     */
+    public void setBitsPerGene(int bits) {
+        if (bits != 0) {
+            if (!GenePacking.isValidBitsPerGene(bits)) {
+                throw new IllegalArgumentException("Genes can only be " +
+                    "packed with 2, 4 or 8 bits per gene.");
+            }
+            for (int n=0; n<this.alphabet.length; n++) {
+                if (this.alphabet[n] < 0 || this.alphabet[n] >= (1 << bits)) {
+                    throw new IllegalArgumentException("The gene value " +
+                        this.alphabet[n] + " does not fit into " + bits +
+                        " bits.");
+                }
+            }
+        }
+        this.bitsPerGene = bits;
+    }
+
     /**
      * Creates an initial Generation of X number of
      * Chromosomes where X = the size passed in as
@@ -90,6 +202,258 @@ public abstract class GenerationProducer {
      */
     public abstract Chromosome[] createInitialGeneration(int size);
 
+    /**
+     * Creates an initial Population of X number of individuals where
+     * X = the size passed in as a parameter.  The genes are stored the
+     * way this producer's bitsPerGene says.
+     */
+    public Population createInitialPopulation(int size) {
+        return Population.fromChromosomes(createInitialGeneration(size),
+            this.maxLength, this.bitsPerGene);
+    }
+
+    /**
+     * @return An empty Population of the given size which stores its
+     *  genes the way this producer's Populations do, for use as the
+     *  child in getNextGeneration(Population, Population).
+     */
+    public Population createPopulation(int size) {
+        return new Population(size, this.maxLength, this.bitsPerGene);
+    }
+
+    /**
+     * Get the next generation of individuals given a parent
+     * Population which has already been scored for fitness.
+     * The parent is left unchanged.
+     */
+    public Population getNextGeneration(Population parent) {
+        Population nextGen = createPopulation(parent.getSize());
+        getNextGeneration(parent, nextGen);
+        return nextGen;
+    }
+
+    /**
+     * Writes the next generation of individuals into the child
+     * Population, overwriting whatever it held before, given a parent
+     * Population which has already been scored for fitness.  The child
+     * must have been created by createPopulation with the parent's
+     * size.  Recycling the same two Populations from one generation to
+     * the next means that no new gene storage has to be allocated.
+     */
+    public void getNextGeneration(Population parent, Population nextGen) {
+        if (nextGen.getSize() != parent.getSize()) {
+            throw new IllegalArgumentException("The child Population must " +
+                "be the same size as the parent.");
+        }
+        if (nextGen.getSize() >= 1) {
+            // First, replace bottom-scorers with top scorers
+            // in the next generation, or choose its parents with
+            // the SelectionStrategy.
+            if (this.selection != null) {
+                doSelection(parent, nextGen);
+            } else {
+                doReplications(parent, nextGen);
+            }
+
+            // Then do crossovers and mutations on views of
+            // the next generation's individuals.
+            Chromosome[] views = nextGen.getChromosomes();
+            if (this.chunkProducers != null && views.length > 1) {
+                doChunks(views);
+            } else {
+                doCrossovers(views);
+                doMutations(views);
+            }
+
+        } // end if the population has at least one member
+    }
+
+    /**
+     * Crosses over and then mutates the views with the chunk producers,
+     * all of the chunks at once.  Producers which cross the ranked pairs
+     * (see crossesRankedPairs) are each handed their share of the pairs,
+     * in order, so that the same pairs are crossed as on one thread.
+     * Otherwise, and for the mutations, each producer is handed one
+     * contiguous chunk of the views.  Every chunk has the view of the
+     * highest scorer appended, so that it sits at the last index, which
+     * producers never change.
+     */
+    private void doChunks(Chromosome[] views) {
+        int numToChange = views.length - 1;
+        Chromosome topScorer = views[numToChange];
+        int numOfChunks = Math.min(this.chunkProducers.length, numToChange);
+        ArrayList crossovers = new ArrayList(numOfChunks);
+        ArrayList mutations = new ArrayList(numOfChunks);
+        int firstPair = 0;
+        for (int c=0; c<numOfChunks; c++) {
+            final GenerationProducer chunkProducer = this.chunkProducers[c];
+            int start = (numToChange * c) / numOfChunks;
+            int end = (numToChange * (c + 1)) / numOfChunks;
+            final Chromosome[] chunk =
+                getChunk(views, start, end, topScorer);
+
+            final Chromosome[] toCross;
+            if (crossesRankedPairs()) {
+                int lastPair = firstPair + chunkProducer.crossOversPerGen;
+                end = Math.min(2 * lastPair, numToChange);
+                start = Math.min(2 * firstPair, end);
+                toCross = getChunk(views, start, end, topScorer);
+                firstPair = lastPair;
+            } else {
+                toCross = chunk;
+            }
+
+            crossovers.add(new Callable() {
+                public Object call() {
+                    chunkProducer.doCrossovers(toCross);
+                    return null;
+                }
+            });
+            mutations.add(new Callable() {
+                public Object call() {
+                    chunkProducer.doMutations(chunk);
+                    return null;
+                }
+            });
+        }
+
+        // every crossover is done before any mutation, as on one thread
+        runChunks(crossovers);
+        runChunks(mutations);
+    }
+
+    /**
+     * @return The views from index start (inclusive) to index end
+     *  (exclusive), followed by the view of the highest scorer.
+     */
+    private static Chromosome[] getChunk(Chromosome[] views, int start,
+            int end, Chromosome topScorer) {
+        Chromosome[] chunk = new Chromosome[end - start + 1];
+        System.arraycopy(views, start, chunk, 0, end - start);
+        chunk[end - start] = topScorer;
+        return chunk;
+    }
+
+    /**
+     * Runs the tasks on the executor and waits for all of them.
+     */
+    private void runChunks(ArrayList tasks) {
+        try {
+            List futures = this.executor.invokeAll(tasks);
+            for (int n=0; n<futures.size(); n++) {
+                ((Future)futures.get(n)).get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while " +
+                "producing a generation.");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException("A chunk producer failed: " +
+                cause);
+        }
+    }
+
+    /**
+     * Does the same replications as doReplications(Chromosome[]) by
+     * copying genes from the parent's gene buffer straight into the
+     * child's, so that no Chromosome objects are created.  Each replica
+     * of a top scorer gets its own copy of the genes.  Unlike the
+     * Chromosome[] version, the copies keep their parents' scores and
+     * are not dirty, so only the individuals which crossovers and
+     * mutations go on to change need to be scored again.
+     *
+     * @param parent The parent Population, which has been scored.
+     * @param child The Population to fill.
+     */
+    protected void doReplications(Population parent, Population child) {
+        int size = child.getSize();
+
+        // The number of low-scorers to drop from the end of the list,
+        // leaving room for the replicas of the top scorers and an
+        // unaltered copy of the highest scorer.
+        int numToDropFromBottom =
+            (this.numToReplicate * (this.numOfReplicationsEach - 1)) + 1;
+
+        // the parent's individuals with the ones kept first, and the
+        // ones whose place matters in order from the highest score
+        int[] order = parent.getIndexesByScore(size - numToDropFromBottom,
+            getNumToRank());
+
+        for (int n=0; n<size - numToDropFromBottom; n++) {
+            child.copyIndividual(parent, order[n], n);
+        }
+        int counter = 0;
+        for (int n=size - numToDropFromBottom; n<(size-1); n++) {
+            if (counter > this.numToReplicate - 1) {
+                counter = 0;
+            }
+            child.copyIndividual(parent, order[counter], n);
+            counter++;
+        }
+
+        // keep the highest scorer from the parent at the last index
+        child.copyIndividual(parent, order[0], size - 1);
+    }
+
+    /**
+     * Fills every individual of the child but the last with copies of
+     * the parents chosen by the SelectionStrategy, and keeps the
+     * parent's highest scorer unaltered at the last index.  As in
+     * doReplications(Population, Population), the copies keep their
+     * parents' scores and are not dirty.
+     *
+     * @param parent The parent Population, which has been scored.
+     * @param child The Population to fill.
+     */
+    protected void doSelection(Population parent, Population child) {
+        int size = child.getSize();
+        if (this.selected == null || this.selected.length != size - 1) {
+            this.selected = new int[size - 1];
+        }
+        this.selection.select(parent, this.selected, size - 1, this.random);
+        for (int n=0; n<size - 1; n++) {
+            child.copyIndividual(parent, this.selected[n], n);
+        }
+
+        // the highest scorer, the lowest index if there is a tie
+        int[] scores = parent.getScores();
+        int topScorer = 0;
+        for (int i=1; i<size; i++) {
+            if (scores[i] > scores[topScorer]) {
+                topScorer = i;
+            }
+        }
+        child.copyIndividual(parent, topScorer, size - 1);
+    }
+
+    /**
+     * @return The number of individuals at the start of each new
+     *  generation which must be in order from the highest score: the
+     *  top scorers which are replicated, and the neighbouring pairs
+     *  which the linear bag producers cross over.  Past that, only
+     *  which individuals are kept matters, not their order, so the
+     *  parent need not be sorted all the way through.
+     */
+    protected int getNumToRank() {
+        return Math.max(this.numToReplicate, 2 * this.crossOversPerGen);
+    }
+
+    /**
+     * @return true if doCrossovers crosses the neighbouring pairs at the
+     *  start of the Chromosomes it is given, (0, 1), (2, 3) and so on,
+     *  as the linear bag producers do, rather than Chromosomes chosen
+     *  at random.  This implementation returns false.
+     */
+    protected boolean crossesRankedPairs() {
+        return false;
+    }
+
     /**
      * Get the next generation of Chromosomes given a parent
      * generation which has already been scored for fitness.
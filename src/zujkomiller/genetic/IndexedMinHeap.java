@@ -0,0 +1,140 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * An IndexedMinHeap keeps the indexes 0 to size - 1 in a binary heap
+ * ordered by a score for each index, lowest first, and knows where in
+ * the heap each index sits.  The index with the lowest score is found
+ * in constant time, and changing the score of any index moves it to
+ * its new place in time proportional to the log of the size.  Among
+ * indexes with the same score, the highest index comes first, the
+ * opposite of the ranking used by ScoreSelection, so the first index is
+ * always the lowest ranked.
+ * <p>
+ * An IndexedMinHeap is not synchronized.
+ */
+public class IndexedMinHeap {
+
+    // heap[p] is the index at position p, and positions[i] the
+    // position of index i
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] scores;
+
+    /**
+     * @param scores The score of each index, which is copied.
+     */
+    public IndexedMinHeap(int[] scores) {
+        int size = scores.length;
+        this.heap = new int[size];
+        this.positions = new int[size];
+        this.scores = new int[size];
+        System.arraycopy(scores, 0, this.scores, 0, size);
+        for (int i=0; i<size; i++) {
+            this.heap[i] = i;
+            this.positions[i] = i;
+        }
+        for (int p=(size / 2) - 1; p>=0; p--) {
+            siftDown(p);
+        }
+    }
+
+    public int getSize() {
+        return this.heap.length;
+    }
+
+    /**
+     * @return The index with the lowest score.
+     */
+    public int getFirst() {
+        if (this.heap.length == 0) {
+            throw new IllegalStateException("The heap is empty.");
+        }
+        return this.heap[0];
+    }
+
+    public int getScore(int i) {
+        return this.scores[i];
+    }
+
+    /**
+     * Gives index i a new score and moves it to its place in the heap.
+     */
+    public void setScore(int i, int score) {
+        int old = this.scores[i];
+        this.scores[i] = score;
+        if (score < old) {
+            siftUp(this.positions[i]);
+        } else {
+            siftDown(this.positions[i]);
+        }
+    }
+
+    private void siftUp(int position) {
+        int p = position;
+        int i = this.heap[p];
+        boolean placed = false;
+        while (p > 0 && !placed) {
+            int parent = (p - 1) / 2;
+            if (comesBefore(i, this.heap[parent])) {
+                move(this.heap[parent], p);
+                p = parent;
+            } else {
+                placed = true;
+            }
+        }
+        move(i, p);
+    }
+
+    private void siftDown(int position) {
+        int size = this.heap.length;
+        int p = position;
+        int i = this.heap[p];
+        boolean placed = false;
+        while ((2 * p) + 1 < size && !placed) {
+            int child = (2 * p) + 1;
+            if (child + 1 < size &&
+                    comesBefore(this.heap[child + 1], this.heap[child])) {
+                child++;
+            }
+            if (comesBefore(this.heap[child], i)) {
+                move(this.heap[child], p);
+                p = child;
+            } else {
+                placed = true;
+            }
+        }
+        move(i, p);
+    }
+
+    private void move(int i, int position) {
+        this.heap[position] = i;
+        this.positions[i] = position;
+    }
+
+    private boolean comesBefore(int i, int j) {
+        return this.scores[i] < this.scores[j] ||
+            (this.scores[i] == this.scores[j] && i > j);
+    }
+
+}
@@ -0,0 +1,396 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * An IslandEvolver runs several populations, or islands, side by side
+ * instead of a single population.  Each island has its own
+ * GenerationProducer and evolves on its own thread, and the islands
+ * advance one generation at a time in step with each other.  Every few
+ * generations (the migration interval), copies of the top scorers of each
+ * island migrate to the islands chosen by a MigrationTopology, where they
+ * take the places of the lowest scorers.
+ * <p>
+ * The population size set on an IslandEvolver is the size of each island.
+ * EvolutionObservers are notified once per generation with a Generation
+ * holding the individuals of every island, and the top score and top
+ * scorers are tracked across all of the islands.  The FitnessTester is
+ * called from several threads at once and must be thread-safe (see
+ * FitnessTester).  Each island scores its own individuals, so the
+ * parallelism and FitnessEvaluator settings of Evolver are not used.
+ */
+public class IslandEvolver extends Evolver {
+
+    protected int numOfIslands = 2;
+    protected int migrationInterval = 10;
+    protected int numOfMigrants = 1;
+    protected MigrationTopology topology = new RingTopology();
+
+    /**
+     * Sets the number of islands to run.  Must be at least one.
+     */
+    public void setNumOfIslands(int numOfIslands) {
+        if (numOfIslands < 1) {
+            throw new IllegalArgumentException("There must be at least " +
+                "one island.");
+        }
+        this.numOfIslands = numOfIslands;
+    }
+
+    /**
+     * @return The number of islands which will be run.
+     */
+    public int getNumOfIslands() {
+        return this.numOfIslands;
+    }
+
+    /**
+     * Sets the number of generations between migrations.
+     * Must be at least one.
+     */
+    public void setMigrationInterval(int generations) {
+        if (generations < 1) {
+            throw new IllegalArgumentException("The migration interval " +
+                "must be at least one generation.");
+        }
+        this.migrationInterval = generations;
+    }
+
+    /**
+     * Sets the number of top scorers each island sends to each of its
+     * destinations when migrating.  Zero turns migration off.
+     */
+    public void setNumOfMigrants(int numOfMigrants) {
+        if (numOfMigrants < 0) {
+            throw new IllegalArgumentException("The number of migrants " +
+                "can not be negative.");
+        }
+        this.numOfMigrants = numOfMigrants;
+    }
+
+    /**
+     * Sets the MigrationTopology which decides where each island's
+     * migrants go.  The default is a RingTopology.
+     */
+    public void setMigrationTopology(MigrationTopology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * This method begins processing of the generations on every island
+     * and returns the final Generation produced by all of the islands
+     * together.
+     */
+    public Chromosome[] evolve() {
+        Chromosome[] finalGeneration = null;
+        if (getReadyToEvolve()) {
+            if (this.numOfMigrants >= this.populationSize) {
+                throw new IllegalArgumentException("The number of migrants " +
+                    "must be less than the population size of an island.");
+            }
+            this.random = createRandomSource();
+            Island[] islands = new Island[this.numOfIslands];
+            for (int n=0; n<islands.length; n++) {
+                islands[n] = new Island(createProducer(), createScorer(),
+                    this.populationSize, this.doubleBuffered);
+            }
+            this.producer = islands[0].producer;
+            ExecutorService executor = Executors.newFixedThreadPool
+                (this.numOfIslands, new ThreadFactory() {
+                    private int count = 0;
+                    public synchronized Thread newThread(Runnable r) {
+                        count++;
+                        Thread thread = new Thread(r, "island-" + count);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            try {
+                finalGeneration = runIslands(islands, executor);
+            } finally {
+                executor.shutdown();
+            }
+        }
+        return finalGeneration;
+    }
+
+    private Chromosome[] runIslands(Island[] islands,
+            ExecutorService executor) {
+        Chromosome[] finalGeneration = null;
+        Population combined = null;
+        Generation gen = null;
+        boolean breed = false;
+        boolean lastGenerationProcessed = false;
+        for (int n=1; n<this.numOfGenerations; n++) {
+            // breed and test every island
+            advance(islands, executor, breed);
+            breed = true;
+
+            // keep track of the top scoring Chromosomes
+            // across all of the islands
+            combined = combine(islands, combined);
+            trackTopScorers(combined);
+
+            this.numOfGenerationsRun++;
+
+            boolean isLastGeneration =
+                this.doStopAtScore && this.topScoreSoFar >= this.stopAtScore;
+            isLastGeneration = endOfGeneration(getPopulations(islands),
+                combined, isLastGeneration);
+
+            gen = describeGeneration(gen, combined);
+            notifyObservers(gen, isLastGeneration);
+
+            // if we've reached the stopAtScore value,
+            // then break the loop if doStopAtScore is true
+            if (isLastGeneration) {
+                lastGenerationProcessed = true;
+                break;
+            }
+
+            if (this.numOfGenerationsRun % this.migrationInterval == 0) {
+                migrate(getPopulations(islands));
+            }
+        }
+
+        if (!lastGenerationProcessed) {
+            advance(islands, executor, breed);
+            combined = combine(islands, combined);
+            finalGeneration = combined.getChromosomes();
+            trackTopScorers(combined);
+
+            this.numOfGenerationsRun++;
+            endOfGeneration(getPopulations(islands), combined, true);
+
+            gen = describeGeneration(gen, combined);
+            notifyObservers(gen, true);
+        } // end if lastGenerationProcessed not processed yet
+        return finalGeneration;
+    }
+
+    /**
+     * Moves every island on by one generation, each on its own thread,
+     * and waits until they have all finished.
+     *
+     * @param breed If false, the islands' current populations are only
+     *  scored, rather than first being replaced by their children.
+     */
+    private void advance(Island[] islands, ExecutorService executor,
+            final boolean breed) {
+        ArrayList tasks = new ArrayList(islands.length);
+        for (int n=0; n<islands.length; n++) {
+            final Island island = islands[n];
+            tasks.add(new Callable() {
+                public Object call() {
+                    if (breed) {
+                        island.breed();
+                    }
+                    island.evaluate(numOfMigrants);
+                    return null;
+                }
+            });
+        }
+        try {
+            List futures = executor.invokeAll(tasks);
+            for (int n=0; n<futures.size(); n++) {
+                ((Future)futures.get(n)).get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while " +
+                "evolving the islands.");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException("An island failed: " + cause);
+        }
+    }
+
+    /**
+     * Copies the individuals of every island, one island after another,
+     * into a single Population.  The previous combined Population is
+     * reused when double-buffered.
+     */
+    private Population combine(Island[] islands, Population previous) {
+        Population combined = previous;
+        if (combined == null || !this.doubleBuffered) {
+            combined = islands[0].producer.createPopulation
+                (islands.length * this.populationSize);
+        }
+        int index = 0;
+        for (int n=0; n<islands.length; n++) {
+            Population population = islands[n].population;
+            for (int i=0; i<population.getSize(); i++) {
+                combined.copyIndividual(population, i, index);
+                index++;
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * Called once every island has been scored in each generation,
+     * before the observers are notified and before any migration.
+     * Subclasses can use it to exchange individuals with islands run
+     * elsewhere, for instance in another process.  This implementation
+     * does nothing.
+     *
+     * @param populations The current Population of each island, which
+     *  may be changed.
+     * @param combined A copy of the individuals of every island.
+     * @param isLastGeneration Whether the evolution is about to end.
+     * @return Whether this is to be the last generation.
+     */
+    protected boolean endOfGeneration(Population[] populations,
+            Population combined, boolean isLastGeneration) {
+        return isLastGeneration;
+    }
+
+    /**
+     * Replaces the lowest scorers of the given Populations with the
+     * individuals in immigrants, dealing them out to the Populations in
+     * turn.  The lowest scorers are ranked before any arrive, and the top
+     * scorer of a Population is never replaced.
+     */
+    protected void settleImmigrants(Population[] populations,
+            Population immigrants) {
+        int count = populations.length;
+        int[][] orders = new int[count][];
+        for (int n=0; n<count; n++) {
+            orders[n] = populations[n].getIndexesByScore();
+        }
+        int[] arrivals = new int[count];
+        for (int m=0; m<immigrants.getSize(); m++) {
+            int dest = m % count;
+            int size = populations[dest].getSize();
+            if (arrivals[dest] < size - 1) {
+                int replaced = orders[dest][size - 1 - arrivals[dest]];
+                populations[dest].copyIndividual(immigrants, m, replaced);
+                arrivals[dest]++;
+            }
+        }
+    }
+
+    private Population[] getPopulations(Island[] islands) {
+        Population[] populations = new Population[islands.length];
+        for (int n=0; n<islands.length; n++) {
+            populations[n] = islands[n].population;
+        }
+        return populations;
+    }
+
+    /**
+     * Sends copies of the top numOfMigrants scorers of each Population
+     * to the Populations chosen by the MigrationTopology.  Arriving
+     * migrants keep their scores and take the places of the lowest
+     * scorers, as ranked before any migrants arrived; the top scorer of
+     * a Population is never replaced.
+     */
+    protected void migrate(Population[] populations) {
+        int count = populations.length;
+        if (count < 2 || this.numOfMigrants == 0) {
+            return;
+        }
+        int[][] orders = new int[count][];
+        Population[] emigrants = new Population[count];
+        for (int n=0; n<count; n++) {
+            Population population = populations[n];
+            orders[n] = population.getIndexesByScore();
+            emigrants[n] = new Population(this.numOfMigrants,
+                population.getMaxLength(), population.getBitsPerGene());
+            for (int m=0; m<this.numOfMigrants; m++) {
+                emigrants[n].copyIndividual(population, orders[n][m], m);
+            }
+        }
+
+        int[] arrivals = new int[count];
+        for (int n=0; n<count; n++) {
+            int[] destinations = this.topology.getDestinations(n, count);
+            for (int d=0; d<destinations.length; d++) {
+                int dest = destinations[d];
+                int size = populations[dest].getSize();
+                for (int m=0; m<this.numOfMigrants; m++) {
+                    if (arrivals[dest] < size - 1) {
+                        int replaced = orders[dest][size - 1 - arrivals[dest]];
+                        populations[dest].copyIndividual(emigrants[n], m,
+                            replaced);
+                        arrivals[dest]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One island: a producer, its own evaluator and scorer and its
+     * current Population, plus a spare Population when double-buffered.
+     */
+    private static class Island {
+        private final GenerationProducer producer;
+        private final PopulationScorer scorer;
+        private final FitnessEvaluator evaluator = new SerialEvaluator();
+        private final boolean doubleBuffered;
+        private Population population;
+        private Population spare = null;
+
+        Island(GenerationProducer producer, PopulationScorer scorer,
+                int size, boolean doubleBuffered) {
+            this.producer = producer;
+            this.scorer = scorer;
+            this.doubleBuffered = doubleBuffered;
+            this.population = producer.createInitialPopulation(size);
+        }
+
+        void breed() {
+            if (this.doubleBuffered) {
+                if (this.spare == null) {
+                    this.spare = producer.createPopulation
+                        (this.population.getSize());
+                }
+                producer.getNextGeneration(this.population, this.spare);
+                Population parent = this.population;
+                this.population = this.spare;
+                this.spare = parent;
+            } else {
+                this.population = producer.getNextGeneration(this.population);
+            }
+        }
+
+        /**
+         * Scores the dirty individuals of the current Population, leaving
+         * exact scores on the numOfEmigrants top scorers and on the ranks
+         * the producer orders.
+         */
+        void evaluate(int numOfEmigrants) {
+            this.scorer.evaluate(this.evaluator, this.population,
+                Math.max(this.producer.getNumToRank(), numOfEmigrants));
+        }
+    }
+
+}
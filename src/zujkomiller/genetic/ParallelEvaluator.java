@@ -0,0 +1,164 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A ParallelEvaluator divides each generation into contiguous blocks of
+ * Chromosomes and scores the blocks concurrently on a fixed pool of
+ * worker threads.  Each block is passed to the FitnessTester as one
+ * batch (see BatchFitnessTester).  The FitnessTester used with a ParallelEvaluator must
+ * be safe to call from several threads at once (see FitnessTester).
+ * <p>
+ * Each Chromosome's score depends only on that Chromosome and the
+ * FitnessTester, so the scores produced are identical to those produced
+ * by a SerialEvaluator no matter how many threads are used.
+ */
+public class ParallelEvaluator implements FitnessEvaluator {
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    // reused from one generation to the next
+    private int[] scores = new int[0];
+
+    /**
+     * @param parallelism The number of threads used to score
+     *  each generation.  Must be at least one.
+     */
+    public ParallelEvaluator(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism of a " +
+                "ParallelEvaluator must be at least one.");
+        }
+        this.parallelism = parallelism;
+        this.executor = Executors.newFixedThreadPool(parallelism,
+            new ThreadFactory() {
+                private int count = 0;
+                public synchronized Thread newThread(Runnable r) {
+                    count++;
+                    Thread thread = new Thread(r, "fitness-evaluator-" + count);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    }
+
+    /**
+     * @return The number of threads used to score each generation.
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    public void evaluate(Chromosome[] generation, FitnessTester tester) {
+        evaluate(generation, 0, generation.length, tester);
+    }
+
+    public void evaluate(Chromosome[] generation, int start, int end,
+            FitnessTester tester) {
+        int size = end - start;
+        if (this.scores.length < end) {
+            this.scores = new int[end];
+        }
+        BatchFitnessTester batchTester = BatchTesterAdapter.adapt(tester);
+        int numOfBlocks = Math.min(this.parallelism, size);
+        if (numOfBlocks <= 1) {
+            batchTester.getFitnessScores(generation, start, end, this.scores);
+            storeScores(generation, start, end, this.scores);
+            return;
+        }
+
+        // split the range into nearly equal contiguous blocks
+        ArrayList tasks = new ArrayList(numOfBlocks);
+        int blockSize = size / numOfBlocks;
+        int remainder = size % numOfBlocks;
+        int blockStart = start;
+        for (int n=0; n<numOfBlocks; n++) {
+            int blockEnd = blockStart + blockSize + ((n < remainder) ? 1 : 0);
+            tasks.add(new ScoringTask(generation, blockStart, blockEnd,
+                batchTester, this.scores));
+            blockStart = blockEnd;
+        }
+
+        try {
+            List futures = this.executor.invokeAll(tasks);
+            for (int n=0; n<futures.size(); n++) {
+                ((Future)futures.get(n)).get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while " +
+                "scoring a generation.");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException("The FitnessTester failed: " +
+                cause);
+        }
+    }
+
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    private static void storeScores(Chromosome[] generation, int start,
+            int end, int[] scores) {
+        for (int i=start; i<end; i++) {
+            generation[i].setFitnessScore(scores[i]);
+        }
+    }
+
+    /**
+     * Scores one contiguous block of a generation.
+     */
+    private static class ScoringTask implements Callable {
+        private final Chromosome[] generation;
+        private final int start;
+        private final int end;
+        private final BatchFitnessTester tester;
+        private final int[] scores;
+
+        ScoringTask(Chromosome[] generation, int start, int end,
+                BatchFitnessTester tester, int[] scores) {
+            this.generation = generation;
+            this.start = start;
+            this.end = end;
+            this.tester = tester;
+            this.scores = scores;
+        }
+
+        public Object call() {
+            this.tester.getFitnessScores(this.generation, this.start,
+                this.end, this.scores);
+            storeScores(this.generation, this.start, this.end, this.scores);
+            return null;
+        }
+    }
+
+}
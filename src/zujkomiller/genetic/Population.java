@@ -0,0 +1,639 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+import java.io.Serializable;
+
+/**
+ * A Population holds every individual of one generation in a few flat
+ * arrays instead of one object per Chromosome: a single gene buffer in
+ * which each individual has a fixed-size slot of maxLength genes, an
+ * int array of lengths and an int array of fitness scores.  The genes
+ * are stored either one per short, or bit-packed into longs when the
+ * Population is created with a non-zero number of bits per gene (see
+ * GenePacking).
+ * <p>
+ * Code written against the Chromosome interface can still work with a
+ * Population through its PopulationChromosome views: reading or changing
+ * a view reads or changes the individual's slot in the Population.
+ * <p>
+ * Each individual is dirty from the time its genes are changed until it
+ * is given a score.  Changing an individual's genes also drops its score
+ * back to -1, while copying an individual carries its score and its dirty
+ * flag along with its genes.
+ */
+public class Population implements Serializable {
+
+    private final int size;
+    private final int maxLength;
+    private final int bitsPerGene;
+    private final int wordsPerIndividual;
+
+    // exactly one of these holds the genes
+    private final short[] genes;
+    private final long[] words;
+
+    private final int[] lengths;
+    private final int[] scores;
+    private final boolean[] dirty;
+
+    // bounded[i] is true when the score of individual i is only an
+    // upper bound, left by a test stopped early; this only matters
+    // while evolving, so it is not kept when serialized
+    private transient boolean[] bounded;
+
+    // views[i] is always the view of individual i; chromosomes is the
+    // array handed out by getChromosomes(), which callers may reorder
+    private transient PopulationChromosome[] views = null;
+    private transient Chromosome[] chromosomes = null;
+
+    // the ranking of the individuals by score, kept until a score
+    // changes: the first numSelected indexes in order are those of the
+    // best numSelected individuals, and the first numSorted of those
+    // are in order
+    private transient int[] order = null;
+    private transient int[] sortScratch = null;
+    private transient int[] countScratch = null;
+    private transient int numSelected = 0;
+    private transient int numSorted = 0;
+
+    /**
+     * Creates a Population of empty, unscored individuals.
+     *
+     * @param size The number of individuals.
+     * @param maxLength The largest number of genes any individual
+     *  may have.
+     * @param bitsPerGene The number of bits in which each gene is
+     *  packed (2, 4 or 8), or zero to store each gene in a short.
+     */
+    public Population(int size, int maxLength, int bitsPerGene) {
+        if (bitsPerGene != 0 && !GenePacking.isValidBitsPerGene(bitsPerGene)) {
+            throw new IllegalArgumentException("Genes can only be packed " +
+                "with 2, 4 or 8 bits per gene.");
+        }
+        this.size = size;
+        this.maxLength = maxLength;
+        this.bitsPerGene = bitsPerGene;
+        this.lengths = new int[size];
+        this.scores = new int[size];
+        this.dirty = new boolean[size];
+        this.bounded = new boolean[size];
+        if (bitsPerGene > 0) {
+            this.wordsPerIndividual =
+                GenePacking.getNumOfWords(maxLength, bitsPerGene);
+            this.words = new long[size * this.wordsPerIndividual];
+            this.genes = null;
+        } else {
+            this.wordsPerIndividual = 0;
+            this.words = null;
+            this.genes = new short[size * maxLength];
+        }
+        for (int i=0; i<size; i++) {
+            this.scores[i] = -1;
+            this.dirty[i] = true;
+        }
+    }
+
+    /**
+     * Creates a Population holding a copy of the genes and scores
+     * of the given Chromosomes.
+     */
+    public static Population fromChromosomes(Chromosome[] chroms,
+            int maxLength, int bitsPerGene) {
+        Population population =
+            new Population(chroms.length, maxLength, bitsPerGene);
+        for (int i=0; i<chroms.length; i++) {
+            population.setGenes(i, chroms[i].getGenes());
+            population.scores[i] = chroms[i].getFitnessScore();
+            population.dirty[i] = chroms[i].isDirty();
+        }
+        return population;
+    }
+
+    /**
+     * @return The number of individuals in this Population.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return The largest number of genes any individual may have.
+     */
+    public int getMaxLength() {
+        return this.maxLength;
+    }
+
+    /**
+     * @return The number of bits each gene is packed into, or zero
+     *  if each gene is stored in a short.
+     */
+    public int getBitsPerGene() {
+        return this.bitsPerGene;
+    }
+
+    /**
+     * @return The number of genes held by individual i.
+     */
+    public int getLength(int i) {
+        return this.lengths[i];
+    }
+
+    /**
+     * @return The fitness score of individual i, or -1 if it
+     *  has not been scored.
+     */
+    public int getScore(int i) {
+        return this.scores[i];
+    }
+
+    /**
+     * Sets the score of individual i, which is then no longer dirty.
+     */
+    public void setScore(int i, int score) {
+        this.scores[i] = score;
+        this.dirty[i] = false;
+        setBounded(i, false);
+        this.numSelected = 0;
+        this.numSorted = 0;
+    }
+
+    /**
+     * Marks the score of individual i as only an upper bound on its
+     * true score, because its test was stopped early.  The mark is
+     * cleared when the individual is given a score again or its genes
+     * change, and is copied along with its score.
+     */
+    public void markBounded(int i) {
+        setBounded(i, true);
+    }
+
+    /**
+     * @return true if the score of individual i is only an upper bound
+     *  (see markBounded).
+     */
+    public boolean isBounded(int i) {
+        return this.bounded != null && this.bounded[i];
+    }
+
+    private void setBounded(int i, boolean isBounded) {
+        if (this.bounded == null && isBounded) {
+            // a deserialized Population has no marks yet
+            this.bounded = new boolean[this.size];
+        }
+        if (this.bounded != null) {
+            this.bounded[i] = isBounded;
+        }
+    }
+
+    /**
+     * @return true if the genes of individual i have changed since
+     *  it was last given a score.
+     */
+    public boolean isDirty(int i) {
+        return this.dirty[i];
+    }
+
+    // marks individual i as needing to be scored again
+    private void touch(int i) {
+        this.dirty[i] = true;
+        this.scores[i] = -1;
+        setBounded(i, false);
+        this.numSelected = 0;
+        this.numSorted = 0;
+    }
+
+    /**
+     * Puts the views of the dirty individuals, in index order, at the
+     * start of the given array, which must be at least as long as this
+     * Population.
+     *
+     * @return The number of dirty individuals.
+     */
+    public int getDirtyChromosomes(Chromosome[] dest) {
+        PopulationChromosome[] allViews = getViews();
+        int count = 0;
+        for (int i=0; i<this.size; i++) {
+            if (this.dirty[i]) {
+                dest[count] = allViews[i];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The scores of all of the individuals, indexed like the
+     *  individuals themselves.  This is the Population's own array.
+     */
+    public int[] getScores() {
+        return this.scores;
+    }
+
+    /**
+     * @return The highest score of any individual, or -1 if the
+     *  Population is empty.
+     */
+    public int getTopScore() {
+        int topScore = -1;
+        if (this.numSorted > 0) {
+            topScore = this.scores[this.order[0]];
+        } else {
+            for (int i=0; i<this.size; i++) {
+                if (i == 0 || this.scores[i] > topScore) {
+                    topScore = this.scores[i];
+                }
+            }
+        }
+        return topScore;
+    }
+
+    public short getGene(int i, int index) {
+        checkIndex(i, index);
+        return readGene(i, index);
+    }
+
+    public void setGene(int i, int index, short gene) {
+        checkIndex(i, index);
+        writeGene(i, index, gene);
+        touch(i);
+    }
+
+    private void checkIndex(int i, int index) {
+        if (index < 0 || index >= this.lengths[i]) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    /**
+     * @return A new array holding the genes of individual i.
+     */
+    public short[] getGenes(int i) {
+        short[] copy = new short[this.lengths[i]];
+        getGenes(i, copy);
+        return copy;
+    }
+
+    /**
+     * Copies the genes of individual i into the given array, which
+     * must be at least as long as the individual.
+     *
+     * @return The number of genes copied.
+     */
+    public int getGenes(int i, short[] dest) {
+        int length = this.lengths[i];
+        if (this.bitsPerGene > 0) {
+            GenePacking.unpack(this.words, i * wordsPerIndividual,
+                this.bitsPerGene, dest, length);
+        } else {
+            System.arraycopy(this.genes, i * this.maxLength, dest, 0, length);
+        }
+        return length;
+    }
+
+    /**
+     * Replaces the genes of individual i with a copy of the given genes.
+     */
+    public void setGenes(int i, short[] src) {
+        setGenes(i, src, src.length);
+    }
+
+    /**
+     * Replaces the genes of individual i with a copy of the first
+     * length genes in the given array.
+     */
+    public void setGenes(int i, short[] src, int length) {
+        if (length > this.maxLength) {
+            throw new IllegalArgumentException("A Chromosome of " + length +
+                " genes does not fit into a Population with a maximum " +
+                "length of " + this.maxLength + ".");
+        }
+        if (this.bitsPerGene > 0) {
+            GenePacking.pack(src, length, this.words, i * wordsPerIndividual,
+                this.bitsPerGene);
+        } else {
+            System.arraycopy(src, 0, this.genes, i * this.maxLength, length);
+        }
+        this.lengths[i] = length;
+        touch(i);
+    }
+
+    /**
+     * Copies the genes, length and score of an individual in another
+     * Population (or this one) into individual i of this Population.
+     * Both Populations must store their genes in the same way.
+     */
+    public void copyIndividual(Population from, int fromIndex, int i) {
+        if (from.bitsPerGene != this.bitsPerGene ||
+                from.maxLength != this.maxLength) {
+            throw new IllegalArgumentException("Individuals can only be " +
+                "copied between Populations which store genes the same way.");
+        }
+        if (this.bitsPerGene > 0) {
+            System.arraycopy(from.words, fromIndex * wordsPerIndividual,
+                this.words, i * wordsPerIndividual, wordsPerIndividual);
+        } else {
+            System.arraycopy(from.genes, fromIndex * maxLength,
+                this.genes, i * maxLength, from.lengths[fromIndex]);
+        }
+        this.lengths[i] = from.lengths[fromIndex];
+        this.scores[i] = from.scores[fromIndex];
+        this.dirty[i] = from.dirty[fromIndex];
+        setBounded(i, from.isBounded(fromIndex));
+        this.numSelected = 0;
+        this.numSorted = 0;
+    }
+
+    /**
+     * Exchanges the first numOfGenes genes of individuals i and j,
+     * leaving their lengths unchanged.
+     */
+    public void swapPrefix(int i, int j, int numOfGenes) {
+        if (this.bitsPerGene > 0) {
+            GenePacking.swapPrefix(this.words, i * wordsPerIndividual,
+                this.words, j * wordsPerIndividual, this.bitsPerGene,
+                numOfGenes);
+        } else {
+            int offset1 = i * this.maxLength;
+            int offset2 = j * this.maxLength;
+            for (int n=0; n<numOfGenes; n++) {
+                short temp = this.genes[offset1 + n];
+                this.genes[offset1 + n] = this.genes[offset2 + n];
+                this.genes[offset2 + n] = temp;
+            }
+        }
+        touch(i);
+        touch(j);
+    }
+
+    /**
+     * Exchanges every gene of individuals i and j from the start index
+     * onwards, along with their lengths, so that each keeps its own
+     * genes before the start index and takes the other's after it.
+     */
+    public void swapTails(int i, int j, int start) {
+        int end = Math.max(this.lengths[i], this.lengths[j]);
+        for (int n=start; n<end; n++) {
+            short temp = readGene(i, n);
+            writeGene(i, n, readGene(j, n));
+            writeGene(j, n, temp);
+        }
+        int tempLength = this.lengths[i];
+        this.lengths[i] = this.lengths[j];
+        this.lengths[j] = tempLength;
+        touch(i);
+        touch(j);
+    }
+
+    /**
+     * Inserts a gene into individual i at the given index, moving the
+     * genes after it along by one.
+     */
+    public void insertGene(int i, int index, short gene) {
+        int length = this.lengths[i];
+        if (length >= this.maxLength) {
+            throw new IllegalArgumentException("A Chromosome of " + length +
+                " genes can not be lengthened in a Population with a " +
+                "maximum length of " + this.maxLength + ".");
+        }
+        for (int n=length; n>index; n--) {
+            writeGene(i, n, readGene(i, n - 1));
+        }
+        writeGene(i, index, gene);
+        this.lengths[i] = length + 1;
+        touch(i);
+    }
+
+    /**
+     * Removes the gene at the given index from individual i, moving
+     * the genes after it back by one.
+     */
+    public void removeGene(int i, int index) {
+        int length = this.lengths[i];
+        checkIndex(i, index);
+        for (int n=index; n<length - 1; n++) {
+            writeGene(i, n, readGene(i, n + 1));
+        }
+        this.lengths[i] = length - 1;
+        touch(i);
+    }
+
+    /**
+     * Moves the genes of individual i from the start index onwards to
+     * the front, followed by the genes which came before the start index.
+     */
+    public void rotate(int i, int start) {
+        int length = this.lengths[i];
+        reverse(i, 0, start);
+        reverse(i, start, length);
+        reverse(i, 0, length);
+        touch(i);
+    }
+
+    private void reverse(int i, int from, int to) {
+        for (int low=from, high=to-1; low<high; low++, high--) {
+            short temp = readGene(i, low);
+            writeGene(i, low, readGene(i, high));
+            writeGene(i, high, temp);
+        }
+    }
+
+    // like getGene and setGene, but without checking the individual's
+    // length, so that the spare room in its slot can be used
+    private short readGene(int i, int index) {
+        short gene = 0;
+        if (this.bitsPerGene > 0) {
+            gene = GenePacking.getGene(this.words, i * wordsPerIndividual,
+                this.bitsPerGene, index);
+        } else {
+            gene = this.genes[(i * this.maxLength) + index];
+        }
+        return gene;
+    }
+
+    private void writeGene(int i, int index, short gene) {
+        if (this.bitsPerGene > 0) {
+            GenePacking.setGene(this.words, i * wordsPerIndividual,
+                this.bitsPerGene, index, gene);
+        } else {
+            this.genes[(i * this.maxLength) + index] = gene;
+        }
+    }
+
+    /**
+     * @return A new Population holding a copy of every individual
+     *  in this one.
+     */
+    public Population copy() {
+        Population copy = new Population(this.size, this.maxLength,
+            this.bitsPerGene);
+        if (this.bitsPerGene > 0) {
+            System.arraycopy(this.words, 0, copy.words, 0, this.words.length);
+        } else {
+            System.arraycopy(this.genes, 0, copy.genes, 0, this.genes.length);
+        }
+        System.arraycopy(this.lengths, 0, copy.lengths, 0, this.size);
+        System.arraycopy(this.scores, 0, copy.scores, 0, this.size);
+        System.arraycopy(this.dirty, 0, copy.dirty, 0, this.size);
+        if (this.bounded != null) {
+            System.arraycopy(this.bounded, 0, copy.bounded, 0, this.size);
+        }
+        return copy;
+    }
+
+    /**
+     * @return true if individual i has the same genes as
+     *  the given Chromosome.
+     */
+    public boolean hasSameGenes(int i, Chromosome chrom) {
+        int length = this.lengths[i];
+        boolean same = (chrom.getSize() == length);
+        for (int n=0; n<length && same; n++) {
+            same = (getGene(i, n) == chrom.getGeneAtIndex(n));
+        }
+        return same;
+    }
+
+    /**
+     * @return The view of individual i.
+     */
+    public PopulationChromosome getChromosome(int i) {
+        return getViews()[i];
+    }
+
+    /**
+     * @return An array of views of every individual, in index order.
+     *  The same array is returned on every call, put back into index
+     *  order, so callers may sort it but should not keep it.
+     */
+    public synchronized Chromosome[] getChromosomes() {
+        PopulationChromosome[] allViews = getViews();
+        if (this.chromosomes == null) {
+            this.chromosomes = new Chromosome[this.size];
+        }
+        System.arraycopy(allViews, 0, this.chromosomes, 0, this.size);
+        return this.chromosomes;
+    }
+
+    /**
+     * @return An array of views of every individual, ordered from the
+     *  highest score to the lowest.  This is the same array returned by
+     *  getChromosomes(), and is reordered by the next call to either.
+     */
+    public synchronized Chromosome[] getChromosomesByScore() {
+        PopulationChromosome[] allViews = getViews();
+        if (this.chromosomes == null) {
+            this.chromosomes = new Chromosome[this.size];
+        }
+        int[] indexes = getIndexesByScore();
+        for (int n=0; n<this.size; n++) {
+            this.chromosomes[n] = allViews[indexes[n]];
+        }
+        return this.chromosomes;
+    }
+
+    private synchronized PopulationChromosome[] getViews() {
+        if (this.views == null) {
+            this.views = new PopulationChromosome[this.size];
+            for (int i=0; i<this.size; i++) {
+                this.views[i] = new PopulationChromosome(this, i);
+            }
+        }
+        return this.views;
+    }
+
+    /**
+     * @return The indexes of the individuals ordered from the highest
+     *  score to the lowest.  Individuals with the same score keep their
+     *  index order.  The array belongs to this Population and is
+     *  overwritten by the next call.
+     */
+    public int[] getIndexesByScore() {
+        return getIndexesByScore(this.size, this.size);
+    }
+
+    /**
+     * Ranks the individuals by score only as far as needed: the first
+     * numToSelect indexes in the array returned are those of the
+     * numToSelect highest scorers, and the first numToSort of those are
+     * ordered from the highest score to the lowest, as they would be by
+     * getIndexesByScore().  The rest are in no particular order.  The
+     * ranking is kept until a score or gene changes, so that the
+     * Evolver, the Generation and the producer can all share it.  The
+     * array belongs to this Population and is overwritten by the next
+     * call.
+     */
+    public synchronized int[] getIndexesByScore(int numToSelect,
+            int numToSort) {
+        numToSort = Math.min(numToSort, this.size);
+        numToSelect = Math.min(Math.max(numToSelect, numToSort), this.size);
+        boolean ranked = (this.numSorted >= numToSelect) ||
+            (this.numSelected == numToSelect && this.numSorted >= numToSort);
+        if (!ranked) {
+            if (this.order == null) {
+                this.order = new int[this.size];
+                this.sortScratch = new int[this.size];
+            }
+            for (int i=0; i<this.size; i++) {
+                this.order[i] = i;
+            }
+            if (numToSort == this.size) {
+                sortAll();
+            } else {
+                ScoreSelection.selectTop(this.order, this.scores, 0,
+                    this.size, numToSelect, numToSort);
+            }
+            this.numSelected = numToSelect;
+            this.numSorted = numToSort;
+        }
+        return this.order;
+    }
+
+    /**
+     * Ranks every individual into order.  Scores which spread over no
+     * more than twice as many values as there are individuals, as
+     * most fitness scores do, are ranked by counting them, in linear
+     * time.  Scores spread more widely than that are merge sorted,
+     * since counting them would cost more than sorting.
+     */
+    private void sortAll() {
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i=0; i<this.size; i++) {
+            min = Math.min(min, this.scores[i]);
+            max = Math.max(max, this.scores[i]);
+        }
+        long numOfScores = (long)max - min + 1;
+        if (this.size > 0 && numOfScores <= 2L * this.size) {
+            if (this.countScratch == null ||
+                    this.countScratch.length < numOfScores + 1) {
+                this.countScratch = new int[(2 * this.size) + 1];
+            }
+            ScoreSelection.countingSort(this.order, this.scores, this.size,
+                min, max, this.countScratch);
+        } else {
+            ScoreSelection.sort(this.order, this.scores, this.sortScratch,
+                0, this.size);
+        }
+    }
+
+}
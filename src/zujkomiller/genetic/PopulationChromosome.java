@@ -0,0 +1,217 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A PopulationChromosome is a view of one individual in a Population.
+ * It holds no genes of its own: every method reads or writes the
+ * individual's slot in the Population.  getGenes() returns a copy of the
+ * genes, so changes made to the returned array only take effect once
+ * they are passed back with setGenes.
+ */
+public class PopulationChromosome implements Chromosome {
+
+    private final Population population;
+    private final int index;
+
+    PopulationChromosome(Population population, int index) {
+        this.population = population;
+        this.index = index;
+    }
+
+    /**
+     * @return The Population holding this individual.
+     */
+    public Population getPopulation() {
+        return this.population;
+    }
+
+    /**
+     * @return The index of this individual within its Population.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    public void setGenes(short[] genes) {
+        this.population.setGenes(this.index, genes);
+    }
+
+    /**
+     * @return A new array holding a copy of the genes.
+     */
+    public short[] getGenes() {
+        return this.population.getGenes(this.index);
+    }
+
+    /**
+     * Copies the genes into the given array, which must be at least
+     * as long as the Chromosome.
+     *
+     * @return The number of genes copied.
+     */
+    public int getGenes(short[] dest) {
+        return this.population.getGenes(this.index, dest);
+    }
+
+    public void setGeneAtIndex(short gene, int index) {
+        this.population.setGene(this.index, index, gene);
+    }
+
+    public short getGeneAtIndex(int index) {
+        return this.population.getGene(this.index, index);
+    }
+
+    public void setFitnessScore(int score) {
+        this.population.setScore(this.index, score);
+    }
+
+    public int getFitnessScore() {
+        return this.population.getScore(this.index);
+    }
+
+    public int getSize() {
+        return this.population.getLength(this.index);
+    }
+
+    public boolean isDirty() {
+        return this.population.isDirty(this.index);
+    }
+
+    /**
+     * Exchanges the first numOfGenes genes of this Chromosome and the
+     * other, which must be in the same Population.
+     */
+    public void swapPrefix(PopulationChromosome other, int numOfGenes) {
+        checkSamePopulation(other);
+        this.population.swapPrefix(this.index, other.index, numOfGenes);
+    }
+
+    /**
+     * Exchanges the genes of this Chromosome and the other, which must
+     * be in the same Population, from the start index onwards.  The two
+     * Chromosomes also exchange lengths.
+     */
+    public void swapTails(PopulationChromosome other, int start) {
+        checkSamePopulation(other);
+        this.population.swapTails(this.index, other.index, start);
+    }
+
+    /**
+     * Inserts a gene at the given index, lengthening this Chromosome
+     * by one.
+     */
+    public void insertGene(int index, short gene) {
+        this.population.insertGene(this.index, index, gene);
+    }
+
+    /**
+     * Removes the gene at the given index, shortening this Chromosome
+     * by one.
+     */
+    public void removeGene(int index) {
+        this.population.removeGene(this.index, index);
+    }
+
+    /**
+     * Moves the genes from the start index onwards to the front of
+     * this Chromosome, followed by the genes before the start index.
+     */
+    public void rotate(int start) {
+        this.population.rotate(this.index, start);
+    }
+
+    private void checkSamePopulation(PopulationChromosome other) {
+        if (other.population != this.population) {
+            throw new IllegalArgumentException("Only Chromosomes in the " +
+                "same Population can exchange genes in place.");
+        }
+    }
+
+    /**
+     * @return A Chromosome in a Population of its own which has a copy
+     *  of this Chromosome's genes, and does not yet have a fitness score.
+     */
+    public Chromosome getUnscoredClone() {
+        Population single = new Population(1, population.getMaxLength(),
+            population.getBitsPerGene());
+        single.copyIndividual(this.population, this.index, 0);
+        single.setScore(0, -1);
+        return single.getChromosome(0);
+    }
+
+    /**
+     * @return The genes in this Chromosome separated by cammas
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer();
+        int length = getSize();
+        for (int n=0; n<length; n++) {
+            buffer.append(getGeneAtIndex(n));
+            if (n < (length - 1)) {
+                buffer.append(", ");
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Implementation of Comparator interface.
+     * Allows sorting of Chromosomes based on their fitness scores:
+     * those with a higher fitness score are listed first.
+     */
+    public int compare(Object chrom1, Object chrom2) {
+        int score1 = ((Chromosome)chrom1).getFitnessScore();
+        int score2 = ((Chromosome)chrom2).getFitnessScore();
+        int comparison = 0;
+        if (score1 < score2) {
+            comparison = 1;
+        } else if (score1 > score2) {
+            comparison = -1;
+        }
+        return comparison;
+    }
+
+    /**
+     * PopulationChromosomes are logically equal if they have the same
+     * fitness score and consist of the same genes.
+     */
+    public boolean equals(Object other) {
+        boolean isEqual = false;
+        if (other instanceof PopulationChromosome) {
+            PopulationChromosome chrom = (PopulationChromosome)other;
+            isEqual = chrom.getFitnessScore() == getFitnessScore() &&
+                this.population.hasSameGenes(this.index, chrom);
+        }
+        return isEqual;
+    }
+
+    public int hashCode() {
+        int hash = getFitnessScore();
+        int length = getSize();
+        for (int n=0; n<length; n++) {
+            hash = (31 * hash) + getGeneAtIndex(n);
+        }
+        return hash;
+    }
+
+}
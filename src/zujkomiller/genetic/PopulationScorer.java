@@ -0,0 +1,128 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A PopulationScorer scores the individuals of each generation which need
+ * it, reusing its working arrays from one generation to the next.  Those
+ * are the dirty individuals, plus, with early exits, any whose score is
+ * an upper bound which might now be high enough to matter.
+ * <p>
+ * With early exits turned on and a BoundedFitnessTester, each generation
+ * is scored against a bar: the numToRank'th highest exact score among
+ * the individuals already scored.  At least numToRank individuals score
+ * that much, so an individual scoring less can never be among the
+ * numToRank highest ranks, which are the ones the producer puts in order
+ * (see GenerationProducer.getNumToRank).  An individual stopped below
+ * the bar is marked as having only an upper bound for its score (see
+ * Population.markBounded), and those bounds are left out of later bars,
+ * since they may be higher than the true scores.
+ * <p>
+ * A PopulationScorer should only be used by one thread at a time.
+ */
+public class PopulationScorer {
+
+    private final FitnessTester tester;
+    private final BoundedTesterAdapter bounded;
+
+    // the individuals being scored, and the exact scores the bar
+    // is chosen from
+    private Chromosome[] toScore = null;
+    private int[] exactScores = null;
+
+    /**
+     * @param tester The FitnessTester which gives the scores.
+     * @param earlyExit Whether to stop the tests of individuals which
+     *  can no longer reach the bar, if the tester is a
+     *  BoundedFitnessTester.
+     */
+    public PopulationScorer(FitnessTester tester, boolean earlyExit) {
+        this.tester = tester;
+        this.bounded = (earlyExit && tester instanceof BoundedFitnessTester)
+            ? new BoundedTesterAdapter((BoundedFitnessTester)tester,
+                Integer.MIN_VALUE)
+            : null;
+    }
+
+    /**
+     * Scores the individuals of the Population which need it.
+     *
+     * @param numToRank The number of highest ranks whose scores must be
+     *  exact (see GenerationProducer.getNumToRank).
+     */
+    public void evaluate(FitnessEvaluator stage, Population population,
+            int numToRank) {
+        int size = population.getSize();
+        if (this.toScore == null || this.toScore.length < size) {
+            this.toScore = new Chromosome[size];
+        }
+        int bar = getScoreBar(population, numToRank);
+        int count = 0;
+        for (int i=0; i<size; i++) {
+            if (population.isDirty(i) || (population.isBounded(i) &&
+                    population.getScore(i) >= bar)) {
+                this.toScore[count] = population.getChromosome(i);
+                count++;
+            }
+        }
+        if (bar == Integer.MIN_VALUE) {
+            stage.evaluate(this.toScore, 0, count, this.tester);
+        } else {
+            this.bounded.setBar(bar);
+            stage.evaluate(this.toScore, 0, count, this.bounded);
+            for (int n=0; n<count; n++) {
+                if (this.toScore[n].getFitnessScore() < bar) {
+                    population.markBounded
+                        (((PopulationChromosome)this.toScore[n]).getIndex());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The numToRank'th highest exact score among the individuals
+     *  which are neither dirty nor bounded, or Integer.MIN_VALUE if early
+     *  exits are off or there are fewer than numToRank such scores.
+     */
+    public int getScoreBar(Population population, int numToRank) {
+        int bar = Integer.MIN_VALUE;
+        if (this.bounded != null && numToRank > 0) {
+            int size = population.getSize();
+            if (this.exactScores == null || this.exactScores.length < size) {
+                this.exactScores = new int[size];
+            }
+            int count = 0;
+            for (int i=0; i<size; i++) {
+                if (!population.isDirty(i) && !population.isBounded(i)) {
+                    this.exactScores[count] = population.getScore(i);
+                    count++;
+                }
+            }
+            if (count >= numToRank) {
+                bar = ScoreSelection.getKthHighest(this.exactScores, count,
+                    numToRank);
+            }
+        }
+        return bar;
+    }
+
+}
@@ -21,90 +21,130 @@
 
 package zujkomiller.genetic;
 
-import java.net.URL;
+import zujkomiller.genetic.linear.*;
 import java.util.*;
 
 /**
  * The ProducerFactory is used to create a subclass of GenerationProducer
  * which is appropriate for the type of genetic algorithm the user
- * wishes to employ.
+ * wishes to employ.  Each kind of GenerationProducer is registered with
+ * a Creator under a ProducerKey describing the Chromosomes it produces:
+ * whether they are of fixed length, whether duplicate genes are allowed
+ * and the type of Chromosome.  The linear producers are registered when
+ * the class is loaded; others may be added with register.
  */
 public class ProducerFactory {
 
-    private static HashMap classNameMap = new HashMap();
-    private static HashMap classMapCache = new HashMap();
+    private static HashMap creators = new HashMap();
 
-    public ProducerFactory() {
-        ProducerKey firstKey =
-            new ProducerFactory.ProducerKey(true, false, Evolver.LINEAR);
-        classNameMap.put(firstKey,
-            "zujkomiller.genetic.linear.FixedSetProducer");
-        ProducerKey secondKey =
-            new ProducerFactory.ProducerKey(true, false, Evolver.LEAF_TREE);
-        classNameMap.put(secondKey,
-            "zujkomiller.genetic.leafTree.FixedSetLeafProducer");
-        ProducerKey thirdKey =
-            new ProducerFactory.ProducerKey(true, true, Evolver.LINEAR);
-        classNameMap.put(thirdKey,
-            "zujkomiller.genetic.linear.FixedBagProducer");
-        ProducerKey fourthKey =
-            new ProducerFactory.ProducerKey(false, true, Evolver.LINEAR);
-        classNameMap.put(fourthKey,
-            "zujkomiller.genetic.linear.VariableBagProducer");
+    static {
+        register(new ProducerKey(true, false, Evolver.LINEAR), new Creator() {
+            public GenerationProducer create(short[] alphabet,
+                    int numToReplicate, int numOfReplicationsEach,
+                    int crossOvers, int mutations, int minLength,
+                    int maxLength) {
+                return new FixedSetProducer(alphabet, numToReplicate,
+                    numOfReplicationsEach, crossOvers, mutations,
+                    minLength, maxLength);
+            }
+        });
+        register(new ProducerKey(true, true, Evolver.LINEAR), new Creator() {
+            public GenerationProducer create(short[] alphabet,
+                    int numToReplicate, int numOfReplicationsEach,
+                    int crossOvers, int mutations, int minLength,
+                    int maxLength) {
+                return new FixedBagProducer(alphabet, numToReplicate,
+                    numOfReplicationsEach, crossOvers, mutations,
+                    minLength, maxLength);
+            }
+        });
+        register(new ProducerKey(false, false, Evolver.LINEAR), new Creator() {
+            public GenerationProducer create(short[] alphabet,
+                    int numToReplicate, int numOfReplicationsEach,
+                    int crossOvers, int mutations, int minLength,
+                    int maxLength) {
+                return new VariableSetProducer(alphabet, numToReplicate,
+                    numOfReplicationsEach, crossOvers, mutations,
+                    minLength, maxLength);
+            }
+        });
+        register(new ProducerKey(false, true, Evolver.LINEAR), new Creator() {
+            public GenerationProducer create(short[] alphabet,
+                    int numToReplicate, int numOfReplicationsEach,
+                    int crossOvers, int mutations, int minLength,
+                    int maxLength) {
+                return new VariableBagProducer(alphabet, numToReplicate,
+                    numOfReplicationsEach, crossOvers, mutations,
+                    minLength, maxLength);
+            }
+        });
+    }
+
+    /**
+     * Registers the Creator of the GenerationProducer to be used for
+     * the kind of Chromosome described by the key, replacing any
+     * Creator registered for it before.
+     */
+    public static void register(ProducerKey key, Creator creator) {
+        synchronized (creators) {
+            creators.put(key, creator);
+        }
     }
 
     /**
-     * Returns the Class of a subclass of GenerationProducer.  The caller
-     * of this method should get the Constructor from the Class and use
-     * reflection to get an instance of the Class, passing in the appropriate
-     * values to the Constructor.
+     * Returns a new GenerationProducer for the kind of Chromosome
+     * described by the parameters.
      *
+     * @param alphabet The values which genes may take.
+     * @param numToReplicate The number of top scorers replicated
+     *  into each new generation.
+     * @param numOfReplicationsEach The number of times each of them
+     *  is replicated.
+     * @param crossOvers The number of crossovers per generation.
+     * @param mutations The number of mutations per generation.
      * @param minChromLength The minimum length of the Chromosome.
      * @param maxChromLength The maximum length of the Chromosome.
      * @param allowDuplicates A boolean indicating whether or not
      *  duplicate values are allowed in the Chromosome.
      * @param chromType The valid values for this are: Evolver.LINEAR,
      *  Evolvler.LEAF_TREE, and Evolver.NODE_TREE.
+     * @throws IllegalArgumentException If no GenerationProducer has
+     *  been registered for that kind of Chromosome.
      */
-    public Class getProducerClass(int minChromLength,
-            int maxChromLength, boolean allowDuplicates, short chromType) {
-        boolean fixedLength = minChromLength == maxChromLength;
-        ProducerFactory.ProducerKey key =
-            new ProducerFactory.ProducerKey
-                (fixedLength, allowDuplicates, chromType);
-        Class theClass = getFromCache(key);
-        if (theClass == null) {
-            theClass = createClass(key);
-            classMapCache.put(key, theClass);
+    public static GenerationProducer createProducer(short[] alphabet,
+            int numToReplicate, int numOfReplicationsEach, int crossOvers,
+            int mutations, int minChromLength, int maxChromLength,
+            boolean allowDuplicates, short chromType) {
+        ProducerKey key = new ProducerKey(minChromLength == maxChromLength,
+            allowDuplicates, chromType);
+        Creator creator = null;
+        synchronized (creators) {
+            creator = (Creator)creators.get(key);
         }
-        return theClass;
-    }
-
-    protected Class createClass(ProducerKey key) {
-        Object obj = classNameMap.get(key);
-        String className = "";
-        Class theClass = null;
-        if (obj != null) {
-            className = (String)obj;
-            try {
-                theClass = Class.forName(className);
-            } catch (ClassNotFoundException cnfe) {
-                // eat it; return null
-            }
+        if (creator == null) {
+            throw new IllegalArgumentException("There is no " +
+                "GenerationProducer for " + key + ".");
         }
-        return theClass;
+        return creator.create(alphabet, numToReplicate,
+            numOfReplicationsEach, crossOvers, mutations, minChromLength,
+            maxChromLength);
     }
 
-    protected Class getFromCache(ProducerKey key) {
-        Object obj = classMapCache.get(key);
-        Class theClass = null;
-        if (obj != null) {
-            theClass = (Class) obj;
-        }
-        return theClass;
+    /**
+     * A Creator makes a new GenerationProducer of one kind.
+     */
+    public interface Creator {
+        public GenerationProducer create(short[] alphabet,
+            int numToReplicate, int numOfReplicationsEach, int crossOvers,
+            int mutations, int minLength, int maxLength);
     }
 
-    private class ProducerKey {
+    /**
+     * Describes a kind of Chromosome: whether it is of fixed length,
+     * whether duplicate genes are allowed, and its type (Evolver.LINEAR,
+     * Evolver.LEAF_TREE or Evolver.NODE_TREE).
+     */
+    public static class ProducerKey {
         private boolean fixedLength;
         private boolean allowDuplicates;
         private short chromType;
@@ -152,6 +192,12 @@ public class ProducerFactory {
             }
             return hash;
         }
+
+        public String toString() {
+            return (fixedLength ? "fixed" : "variable") + " length " +
+                "Chromosomes of type " + chromType + (allowDuplicates
+                    ? " with" : " without") + " duplicate genes";
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A RandomSource is a fast generator of pseudorandom numbers for the
+ * GenerationProducers.  It uses the xoroshiro128** algorithm, with its
+ * state filled from the seed by the SplitMix64 algorithm, so that even
+ * seeds which differ by one give unrelated sequences.
+ * <p>
+ * Unlike java.util.Random, a RandomSource is not synchronized and must
+ * only be used by one thread at a time.  Where several threads need
+ * random numbers, each should be given its own RandomSource by calling
+ * split on a common one.  A run whose RandomSources all come from one
+ * seeded RandomSource can be repeated exactly by using the same seed.
+ */
+public class RandomSource {
+
+    // the golden ratio increment used by SplitMix64
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // used to give unseeded RandomSources different seeds
+    private static long seedUniquifier = System.currentTimeMillis();
+
+    private long state0;
+    private long state1;
+
+    /**
+     * Creates a RandomSource with a seed which differs from that of
+     * every other unseeded RandomSource.
+     */
+    public RandomSource() {
+        this(nextUniqueSeed());
+    }
+
+    /**
+     * Creates a RandomSource which will always give the same sequence
+     * of numbers for the same seed.
+     */
+    public RandomSource(long seed) {
+        // SplitMix64 is a bijection of its counter, so the two halves
+        // of the state can never both be zero
+        this.state0 = mix64(seed + GOLDEN_GAMMA);
+        this.state1 = mix64(seed + (2 * GOLDEN_GAMMA));
+    }
+
+    private static synchronized long nextUniqueSeed() {
+        seedUniquifier += GOLDEN_GAMMA;
+        return seedUniquifier ^ System.nanoTime();
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return A new RandomSource, seeded from this one, whose numbers
+     *  are unrelated to the ones this will go on to give.
+     */
+    public RandomSource split() {
+        return new RandomSource(nextLong());
+    }
+
+    public long nextLong() {
+        long s0 = this.state0;
+        long s1 = this.state1;
+        long result = Long.rotateLeft(s0 * 5, 7) * 9;
+        s1 ^= s0;
+        this.state0 = Long.rotateLeft(s0, 24) ^ s1 ^ (s1 << 16);
+        this.state1 = Long.rotateLeft(s1, 37);
+        return result;
+    }
+
+    public int nextInt() {
+        return (int)(nextLong() >>> 32);
+    }
+
+    /**
+     * @return A number from zero (inclusive) to bound (exclusive),
+     *  each as likely as the others.
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("The bound must be " +
+                "positive, not " + bound + ".");
+        }
+        // take 31 bits and throw away the values from the uneven
+        // remainder at the top of the range
+        int bits = (int)(nextLong() >>> 33);
+        int value = bits % bound;
+        while (bits - value + (bound - 1) < 0) {
+            bits = (int)(nextLong() >>> 33);
+            value = bits % bound;
+        }
+        return value;
+    }
+
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * @return A number from zero (inclusive) to one (exclusive).
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+}
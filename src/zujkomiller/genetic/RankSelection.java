@@ -0,0 +1,89 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * RankSelection chooses parents with a probability which falls in a
+ * straight line from the highest ranked individual to the lowest, so
+ * the spread of the scores does not matter, only their order.  With a
+ * selection pressure p between 1 and 2, the highest scorer is expected
+ * to be chosen p times as often as an average individual, and the
+ * lowest scorer 2 - p times as often.
+ * <p>
+ * The probabilities depend only on the size of the Population, so the
+ * AliasTable drawn from is built once and reused from one generation
+ * to the next; each parent then costs constant time.  The ranking
+ * comes from Population.getIndexesByScore(), which is shared with
+ * anything else that ranks the same Population.  It counts the scores
+ * rather than sorting them, so it takes linear time, unless the scores
+ * spread over more than twice as many values as there are individuals.
+ * Only then is the Population merge sorted.
+ */
+public class RankSelection implements SelectionStrategy {
+
+    private final double pressure;
+    private AliasTable table = null;
+
+    /**
+     * @param pressure The selection pressure, from 1 (every individual
+     *  is as likely to be chosen) to 2 (the lowest scorer is never
+     *  chosen).
+     */
+    public RankSelection(double pressure) {
+        if (!(pressure >= 1 && pressure <= 2)) {
+            throw new IllegalArgumentException("The selection pressure " +
+                "must be from 1 to 2: " + pressure);
+        }
+        this.pressure = pressure;
+    }
+
+    public double getPressure() {
+        return this.pressure;
+    }
+
+    public void select(Population population, int[] dest, int count,
+            RandomSource random) {
+        if (count > 0) {
+            int[] order = population.getIndexesByScore();
+            AliasTable ranks = getTable(order.length);
+            for (int n=0; n<count; n++) {
+                dest[n] = order[ranks.next(random)];
+            }
+        }
+    }
+
+    private synchronized AliasTable getTable(int size) {
+        if (this.table == null || this.table.getSize() != size) {
+            double[] weights = new double[size];
+            for (int rank=0; rank<size; rank++) {
+                weights[rank] = 1;
+                if (size > 1) {
+                    weights[rank] = this.pressure - (((2 * this.pressure) -
+                        2) * rank) / (size - 1);
+                }
+            }
+            this.table = new AliasTable(weights);
+        }
+        return this.table;
+    }
+
+}
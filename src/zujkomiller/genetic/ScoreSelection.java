@@ -0,0 +1,246 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * ScoreSelection ranks individuals by score without sorting all of them.
+ * Picking the top scorers of a generation only needs the individuals to
+ * be split into those above and below a given rank, which a quickselect
+ * does in time proportional to the size of the generation; only the few
+ * top scorers whose order matters are then sorted.
+ * <p>
+ * Individuals are ranked from the highest score to the lowest, and
+ * individuals with the same score by index, lowest first, so the
+ * ranking is the same as a stable sort by descending score would give.
+ */
+public abstract class ScoreSelection {
+
+    /**
+     * Rearranges the indexes from index from (inclusive) to index to
+     * (exclusive) so that the individuals of the numToSelect best ranks
+     * among them come first, with the numToSort best of those in order.
+     *
+     * @param indexes The indexes of the individuals to rank.
+     * @param scores The scores of the individuals, by index.
+     * @param from The first position of indexes to rank.
+     * @param to One past the last position of indexes to rank.
+     * @param numToSelect How many of the best ranks to put first.
+     * @param numToSort How many of those to sort; no more than
+     *  numToSelect.
+     */
+    public static void selectTop(int[] indexes, int[] scores, int from,
+            int to, int numToSelect, int numToSort) {
+        if (numToSelect < to - from) {
+            select(indexes, scores, from, to, from + numToSelect);
+        }
+        if (numToSort < numToSelect) {
+            select(indexes, scores, from, from + numToSelect,
+                from + numToSort);
+        }
+        if (numToSort > 1) {
+            sort(indexes, scores, new int[numToSort], from,
+                from + numToSort);
+        }
+    }
+
+    /**
+     * Sorts the indexes from index from (inclusive) to index to
+     * (exclusive) by rank.
+     *
+     * @param scratch A working array at least as long as the
+     *  range being sorted.
+     */
+    public static void sort(int[] indexes, int[] scores, int[] scratch,
+            int from, int to) {
+        mergeSort(indexes, scores, scratch, from, to, from);
+    }
+
+    /**
+     * Ranks all count individuals by counting how many have each score,
+     * in time proportional to count plus the spread of the scores.  The
+     * indexes array is filled with 0 to count - 1 in rank order; its
+     * earlier contents do not matter.
+     *
+     * @param min The lowest score of any of the individuals.
+     * @param max The highest score of any of the individuals.
+     * @param counts A working array at least (max - min + 2) long.
+     */
+    public static void countingSort(int[] indexes, int[] scores, int count,
+            int min, int max, int[] counts) {
+        int numOfScores = max - min + 1;
+        for (int n=0; n<=numOfScores; n++) {
+            counts[n] = 0;
+        }
+        // count each score at its distance below the highest score, then
+        // turn the counts into the first position of each score
+        for (int i=0; i<count; i++) {
+            counts[max - scores[i] + 1]++;
+        }
+        for (int n=1; n<=numOfScores; n++) {
+            counts[n] += counts[n - 1];
+        }
+        for (int i=0; i<count; i++) {
+            indexes[counts[max - scores[i]]++] = i;
+        }
+    }
+
+    /**
+     * @return The k'th highest of the first count values (k counting
+     *  from one), found without sorting them.  The values are left
+     *  rearranged.
+     */
+    public static int getKthHighest(int[] values, int count, int k) {
+        if (k < 1 || k > count) {
+            throw new IllegalArgumentException("Cannot find the " + k +
+                "th highest of " + count + " values.");
+        }
+        int from = 0;
+        int to = count;
+        int target = k - 1;
+        while (to - from > 1) {
+            int pivot = medianOfThree(values[from],
+                values[(from + to) >>> 1], values[to - 1]);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (values[i] > pivot) {
+                    i++;
+                }
+                while (values[j] < pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = values[i];
+                    values[i] = values[j];
+                    values[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (target <= j) {
+                to = j + 1;
+            } else if (target >= i) {
+                from = i;
+            } else {
+                from = to; // the target holds the pivot
+            }
+        }
+        return values[target];
+    }
+
+    // true if individual a ranks before individual b
+    private static boolean ranksBefore(int a, int b, int[] scores) {
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    /**
+     * Moves the individual of rank k (counting positions from zero, as
+     * in indexes) to position k, with every individual ranked before it
+     * between from and k, and every one ranked after it between k and to.
+     */
+    private static void select(int[] indexes, int[] scores, int from,
+            int to, int k) {
+        while (to - from > 1) {
+            int pivot = medianOfThree(indexes[from],
+                indexes[(from + to) >>> 1], indexes[to - 1], scores);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (ranksBefore(indexes[i], pivot, scores)) {
+                    i++;
+                }
+                while (ranksBefore(pivot, indexes[j], scores)) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = indexes[i];
+                    indexes[i] = indexes[j];
+                    indexes[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                to = j + 1;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                from = to; // k holds the pivot
+            }
+        }
+    }
+
+    private static int medianOfThree(int a, int b, int c, int[] scores) {
+        int median = b;
+        if (ranksBefore(a, b, scores) == ranksBefore(b, c, scores)) {
+            median = b;
+        } else if (ranksBefore(b, a, scores) == ranksBefore(a, c, scores)) {
+            median = a;
+        } else {
+            median = c;
+        }
+        return median;
+    }
+
+    private static int medianOfThree(int a, int b, int c) {
+        int median = b;
+        if ((a > b) == (b > c)) {
+            median = b;
+        } else if ((b > a) == (a > c)) {
+            median = a;
+        } else {
+            median = c;
+        }
+        return median;
+    }
+
+    // a merge sort of indexes[from, to) by rank, using scratch
+    // from position (from - base)
+    private static void mergeSort(int[] indexes, int[] scores,
+            int[] scratch, int from, int to, int base) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(indexes, scores, scratch, from, middle, base);
+        mergeSort(indexes, scores, scratch, middle, to, base);
+        if (ranksBefore(indexes[middle - 1], indexes[middle], scores)) {
+            return; // already in order
+        }
+        System.arraycopy(indexes, from, scratch, from - base, to - from);
+        int left = from - base;
+        int right = middle - base;
+        int leftEnd = middle - base;
+        int rightEnd = to - base;
+        for (int n=from; n<to; n++) {
+            if (right >= rightEnd || (left < leftEnd &&
+                    ranksBefore(scratch[left], scratch[right], scores))) {
+                indexes[n] = scratch[left];
+                left++;
+            } else {
+                indexes[n] = scratch[right];
+                right++;
+            }
+        }
+    }
+
+}
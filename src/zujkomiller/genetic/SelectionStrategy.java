@@ -0,0 +1,50 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A SelectionStrategy chooses which individuals of a scored Population
+ * become the parents of the next generation.  A GenerationProducer
+ * given one (see GenerationProducer.setSelectionStrategy) fills the
+ * next generation with copies of the individuals it chooses, instead
+ * of replicating its top scorers.
+ * <p>
+ * The islands of an IslandEvolver share the Evolver's strategy, so
+ * implementations must be safe to call from several threads at once.
+ */
+public interface SelectionStrategy {
+
+    /**
+     * Chooses individuals of the population, the same one as often as
+     * the strategy likes, using only the given RandomSource for any
+     * random choices.
+     *
+     * @param population The Population to choose from, which has been
+     *  scored.
+     * @param dest The array into which the indexes of the chosen
+     *  individuals are written.
+     * @param count The number of individuals to choose.
+     */
+    public void select(Population population, int[] dest, int count,
+        RandomSource random);
+
+}
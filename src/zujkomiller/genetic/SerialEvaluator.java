@@ -0,0 +1,55 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * A SerialEvaluator scores the Chromosomes in a generation one after
+ * another on the calling thread.  This is the default evaluation stage
+ * used by the Evolver.  The whole generation is passed to the
+ * FitnessTester as a single batch.
+ */
+public class SerialEvaluator implements FitnessEvaluator {
+
+    // reused from one generation to the next
+    private int[] scores = new int[0];
+
+    public void evaluate(Chromosome[] generation, FitnessTester tester) {
+        evaluate(generation, 0, generation.length, tester);
+    }
+
+    public void evaluate(Chromosome[] generation, int start, int end,
+            FitnessTester tester) {
+        if (this.scores.length < end) {
+            this.scores = new int[end];
+        }
+        BatchTesterAdapter.adapt(tester).getFitnessScores(generation, start,
+            end, this.scores);
+        for (int i=start; i<end; i++) {
+            generation[i].setFitnessScore(this.scores[i]);
+        }
+    }
+
+    public void shutdown() {
+        // nothing to release
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A SteadyStateEvolver evolves a single population without replacing
+ * it a whole generation at a time.  Each of its breeder threads over
+ * and over picks two parents, crosses over and mutates copies of them,
+ * scores the two offspring, and puts each offspring in the place of
+ * the lowest scorer of the population, unless it scores lower still.
+ * The lowest scorer is kept track of with an IndexedMinHeap.  No
+ * breeder waits for another to finish scoring, so a FitnessTester
+ * which takes a long and varying time over each Chromosome still keeps
+ * every thread busy.
+ * <p>
+ * The parents are chosen by the SelectionStrategy, or by tournaments
+ * of two if none is set; numToReplicate and numOfTimes are not used.
+ * Each pair of offspring is crossed over and mutated at random as often
+ * as crossoversPerGen and mutationsPerGen would be spread over
+ * populationSize individuals.  Every populationSize offspring count as
+ * a generation: after each one, the EvolutionObservers are notified
+ * with a Generation holding a copy of the population, and the run
+ * stops after numOfGenerations of them, or once stopAtScore is reached.
+ * <p>
+ * The parallelism is the number of breeder threads, and the
+ * FitnessTester must be thread-safe if it is more than one.  The
+ * FitnessEvaluator, if one is set, only scores the initial population.
+ * With early exits, each offspring is tested only until it can no
+ * longer beat the lowest scorer, so its score is exact whenever it is
+ * kept.
+ */
+public class SteadyStateEvolver extends Evolver {
+
+    // the state shared with the breeders, guarded by the lock
+    private final Object lock = new Object();
+    private Population population = null;
+    private IndexedMinHeap lowest = null;
+    private long numClaimed = 0;
+    private long numBorn = 0;
+    private long numToBreed = 0;
+    private boolean stopping = false;
+    private boolean failed = false;
+
+    /**
+     * This method begins the breeding and returns the final
+     * Generation produced.
+     */
+    public Chromosome[] evolve() {
+        Chromosome[] finalGeneration = null;
+        if (getReadyToEvolve()) {
+            this.random = createRandomSource();
+            this.producer = createProducer();
+            FitnessEvaluator stage = this.evaluator;
+            if (stage == null) {
+                stage = (this.parallelism > 1)
+                    ? (FitnessEvaluator)new ParallelEvaluator(this.parallelism)
+                    : (FitnessEvaluator)new SerialEvaluator();
+            }
+            ExecutorService executor = Executors.newFixedThreadPool
+                (this.parallelism, new ThreadFactory() {
+                    private int count = 0;
+                    public synchronized Thread newThread(Runnable r) {
+                        count++;
+                        Thread thread = new Thread(r, "breeder-" + count);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            try {
+                finalGeneration = runBreeders(stage, executor);
+            } finally {
+                if (stage != this.evaluator) {
+                    stage.shutdown();
+                }
+                executor.shutdown();
+            }
+        }
+        return finalGeneration;
+    }
+
+    private Chromosome[] runBreeders(FitnessEvaluator stage,
+            ExecutorService executor) {
+        Chromosome[] finalGeneration = null;
+        int size = this.populationSize;
+        Population initial = this.producer.createInitialPopulation(size);
+        evaluateDirty(stage, initial);
+        synchronized (this.lock) {
+            this.population = initial;
+            this.lowest = new IndexedMinHeap(initial.getScores());
+            this.numClaimed = 0;
+            this.numBorn = 0;
+            this.numToBreed = (long)(this.numOfGenerations - 1) * size;
+            this.stopping = false;
+            this.failed = false;
+        }
+
+        ArrayList futures = new ArrayList(this.parallelism);
+        Population snapshot = null;
+        Generation gen = null;
+        boolean isLastGeneration = false;
+        try {
+            for (int n=1; n<=this.numOfGenerations && !isLastGeneration;
+                    n++) {
+                if (n == 2) {
+                    for (int b=0; b<this.parallelism; b++) {
+                        futures.add(executor.submit(new Breeder
+                            (createProducer(1, 1), size)));
+                    }
+                }
+
+                snapshot = awaitGeneration((long)(n - 1) * size, snapshot);
+                if (snapshot == null) {
+                    // a breeder failed, which is reported below
+                    break;
+                }
+                trackTopScorers(snapshot);
+
+                this.numOfGenerationsRun++;
+
+                isLastGeneration = (n == this.numOfGenerations) ||
+                    (this.doStopAtScore &&
+                        this.topScoreSoFar >= this.stopAtScore);
+                if (n == this.numOfGenerations) {
+                    finalGeneration = snapshot.getChromosomes();
+                }
+
+                gen = describeGeneration(gen, snapshot);
+                notifyObservers(gen, isLastGeneration);
+            }
+        } finally {
+            synchronized (this.lock) {
+                this.stopping = true;
+                this.lock.notifyAll();
+            }
+        }
+
+        try {
+            for (int n=0; n<futures.size(); n++) {
+                ((Future)futures.get(n)).get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while " +
+                "stopping the breeders.");
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IllegalStateException("A breeder failed: " + cause);
+        }
+        return finalGeneration;
+    }
+
+    /**
+     * Waits until the given number of offspring have been born, and
+     * copies the population as it then is.
+     *
+     * @return The copy, written over the previous copy when
+     *  double-buffered, or null if a breeder has failed.
+     */
+    private Population awaitGeneration(long born, Population previous) {
+        Population snapshot = null;
+        synchronized (this.lock) {
+            try {
+                while (this.numBorn < born && !this.failed) {
+                    this.lock.wait();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while " +
+                    "waiting for the breeders.");
+            }
+            if (!this.failed) {
+                snapshot = previous;
+                if (snapshot == null || !this.doubleBuffered) {
+                    snapshot = this.producer.createPopulation
+                        (this.population.getSize());
+                }
+                for (int i=0; i<this.population.getSize(); i++) {
+                    snapshot.copyIndividual(this.population, i, i);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return The number of times to do something which is to be done
+     *  the given number of times on average: the whole part of it, and
+     *  one more as often as the fraction says.
+     */
+    private static int getNumOfTimes(double expected, RandomSource random) {
+        int times = (int)expected;
+        if (random.nextDouble() < expected - times) {
+            times++;
+        }
+        return times;
+    }
+
+    /**
+     * Breeds pairs of offspring on one thread, with its own producer,
+     * until there are no more to breed.  The brood holds the two
+     * offspring, followed by an empty individual at the last index,
+     * which producers never change.
+     */
+    private class Breeder implements Callable {
+        private final GenerationProducer producer;
+        private final SelectionStrategy selection;
+        private final Population brood;
+        private final Chromosome[] views;
+        private final int[] parents = new int[2];
+        private final double crossovers;
+        private final double mutations;
+        private final BoundedTesterAdapter bounded;
+        private int bar = Integer.MIN_VALUE;
+
+        Breeder(GenerationProducer producer, int size) {
+            this.producer = producer;
+            this.selection = (SteadyStateEvolver.this.selection != null)
+                ? SteadyStateEvolver.this.selection
+                : (SelectionStrategy)new TournamentSelection(2);
+            this.brood = producer.createPopulation(3);
+            this.views = this.brood.getChromosomes();
+            this.crossovers = (2.0 * crossoversPerGen) / size;
+            this.mutations = (2.0 * mutationsPerGen) / size;
+            this.bounded =
+                (earlyExit && tester instanceof BoundedFitnessTester)
+                ? new BoundedTesterAdapter((BoundedFitnessTester)tester,
+                    Integer.MIN_VALUE)
+                : null;
+        }
+
+        public Object call() {
+            try {
+                while (claimParents()) {
+                    breed();
+                    settleOffspring();
+                }
+            } catch (RuntimeException re) {
+                fail();
+                throw re;
+            } catch (Error e) {
+                fail();
+                throw e;
+            }
+            return null;
+        }
+
+        /**
+         * Copies two parents into the brood, unless there are no more
+         * offspring to breed.
+         */
+        private boolean claimParents() {
+            boolean claimed = false;
+            synchronized (lock) {
+                if (!stopping && numClaimed < numToBreed) {
+                    numClaimed += 2;
+                    this.selection.select(population, this.parents, 2,
+                        this.producer.getRandomSource());
+                    this.brood.copyIndividual(population, this.parents[0], 0);
+                    this.brood.copyIndividual(population, this.parents[1], 1);
+                    this.bar = lowest.getScore(lowest.getFirst());
+                    claimed = true;
+                }
+            }
+            return claimed;
+        }
+
+        /**
+         * Crosses over, mutates and scores the offspring.
+         */
+        private void breed() {
+            RandomSource random = this.producer.getRandomSource();
+            int numOfCrossovers = getNumOfTimes(this.crossovers, random);
+            for (int n=0; n<numOfCrossovers; n++) {
+                this.producer.doCrossovers(this.views);
+            }
+            int numOfMutations = getNumOfTimes(this.mutations, random);
+            for (int n=0; n<numOfMutations; n++) {
+                this.producer.doMutations(this.views);
+            }
+
+            FitnessTester scorer = tester;
+            if (this.bounded != null) {
+                this.bounded.setBar(this.bar);
+                scorer = this.bounded;
+            }
+            for (int i=0; i<2; i++) {
+                if (this.brood.isDirty(i)) {
+                    this.views[i].setFitnessScore
+                        (scorer.getFitnessScore(this.views[i]));
+                }
+            }
+        }
+
+        /**
+         * Puts each offspring in the place of the lowest scorer, unless
+         * it scores lower still.
+         */
+        private void settleOffspring() {
+            synchronized (lock) {
+                for (int i=0; i<2; i++) {
+                    int replaced = lowest.getFirst();
+                    int score = this.brood.getScore(i);
+                    if (score >= lowest.getScore(replaced)) {
+                        population.copyIndividual(this.brood, i, replaced);
+                        lowest.setScore(replaced, score);
+                    }
+                    numBorn++;
+                }
+                lock.notifyAll();
+            }
+        }
+
+        private void fail() {
+            synchronized (lock) {
+                failed = true;
+                stopping = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+}
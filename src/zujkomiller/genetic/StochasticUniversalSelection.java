@@ -0,0 +1,80 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * StochasticUniversalSelection chooses parents in proportion to their
+ * scores, with evenly spaced pointers laid over the scores in a single
+ * pass, so that each individual is chosen within one of the number of
+ * times its share of the total score would have it chosen.  Scores
+ * may be negative: each individual's share is its score less the
+ * lowest score in the Population, plus one.
+ * <p>
+ * The chosen parents are shuffled before they are returned, so that
+ * copies of the same individual do not end up side by side.
+ */
+public class StochasticUniversalSelection implements SelectionStrategy {
+
+    public void select(Population population, int[] dest, int count,
+            RandomSource random) {
+        int size = population.getSize();
+        int[] scores = population.getScores();
+        if (count > 0 && size > 0) {
+            int lowest = scores[0];
+            for (int i=1; i<size; i++) {
+                if (scores[i] < lowest) {
+                    lowest = scores[i];
+                }
+            }
+            double total = 0;
+            for (int i=0; i<size; i++) {
+                total += getShare(scores[i], lowest);
+            }
+
+            double spacing = total / count;
+            double pointer = random.nextDouble() * spacing;
+            double passed = 0;
+            int i = 0;
+            for (int n=0; n<count; n++) {
+                while (i < size - 1 &&
+                        passed + getShare(scores[i], lowest) <= pointer) {
+                    passed += getShare(scores[i], lowest);
+                    i++;
+                }
+                dest[n] = i;
+                pointer += spacing;
+            }
+
+            for (int n=count - 1; n>0; n--) {
+                int other = random.nextInt(n + 1);
+                int temp = dest[n];
+                dest[n] = dest[other];
+                dest[other] = temp;
+            }
+        }
+    }
+
+    private static double getShare(int score, int lowest) {
+        return ((double)score - lowest) + 1;
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic;
+
+/**
+ * TournamentSelection chooses each parent by holding a tournament
+ * between individuals picked at random, the same one possibly more
+ * than once, and taking the highest scorer among them.  Larger
+ * tournaments favour the top scorers more strongly; a tournament of
+ * one chooses at random.  Each parent costs one random pick per
+ * entrant, so the Population never needs to be sorted.
+ */
+public class TournamentSelection implements SelectionStrategy {
+
+    private final int tournamentSize;
+
+    /**
+     * @param tournamentSize The number of individuals in each
+     *  tournament; at least one.
+     */
+    public TournamentSelection(int tournamentSize) {
+        if (tournamentSize < 1) {
+            throw new IllegalArgumentException("A tournament must have " +
+                "at least one entrant.");
+        }
+        this.tournamentSize = tournamentSize;
+    }
+
+    public int getTournamentSize() {
+        return this.tournamentSize;
+    }
+
+    public void select(Population population, int[] dest, int count,
+            RandomSource random) {
+        int size = population.getSize();
+        int[] scores = population.getScores();
+        for (int n=0; n<count; n++) {
+            int winner = random.nextInt(size);
+            for (int t=1; t<this.tournamentSize; t++) {
+                int entrant = random.nextInt(size);
+                // ties go to the lower index, as in ScoreSelection
+                if (scores[entrant] > scores[winner] ||
+                        (scores[entrant] == scores[winner] &&
+                            entrant < winner)) {
+                    winner = entrant;
+                }
+            }
+            dest[n] = winner;
+        }
+    }
+
+}
@@ -32,13 +32,30 @@ import java.util.*;
  * Its main method should be passed the full path name
  * to the .properties file which lists the parameters
  * used to run the program.
+ * <p>
+ * The name of the .properties file may be followed by "coordinator" or
+ * "worker" to spread a run over several processes.  Each process is
+ * started with the same .properties file.  The coordinator listens on the
+ * coordinatorPort for the number of workers given by the workers
+ * property, writes the output and notifies the observers.  Each worker
+ * connects to the coordinatorHost and runs its islands (see the islands
+ * property), writing no output of its own.
  */
 public class Genie implements EvolutionObserver {
 
+    public static final String COORDINATOR = "coordinator";
+    public static final String WORKER = "worker";
+
     private final Properties initParams = new Properties();
     private String initParamsFileName = "";
     private Evolver evolver;
 
+    /** COORDINATOR, WORKER or null for a run in this process alone */
+    private String role = null;
+
+    /** the cache in front of the fitnessTester, if there is one */
+    private CachingFitnessTester fitnessCache = null;
+
     /** where to output the results */
     private File outputFile = null;
     private FileWriter fileWriter = null;
@@ -66,18 +83,39 @@ public class Genie implements EvolutionObserver {
      *  will run.
      */
     public Genie(String fileName) {
+        this(fileName, null);
+    }
+
+    /**
+     * @param fileName The full path name to the .properties
+     *  file listing the parameters under which the program
+     *  will run.
+     * @param role COORDINATOR or WORKER to take part in a run spread
+     *  over several processes, or null to run in this process alone.
+     */
+    public Genie(String fileName, String role) {
+        if (role != null && !role.equals(COORDINATOR) &&
+                !role.equals(WORKER)) {
+            throw new IllegalArgumentException("Unknown role: " + role);
+        }
+        this.role = role;
         try {
             initParamsFileName = fileName;
             initParams.load(new FileInputStream(fileName));
-            this.loadOutputInfo();
-            writeParamsToOutput();
+            if (!WORKER.equals(role)) {
+                this.loadOutputInfo();
+                writeParamsToOutput();
+            }
         } catch (IOException ioe) {
             ioe.printStackTrace();
             return;
         }
 
         this.createEvolver();
-        this.evolver.addEvolutionObserver(this);
+        if (!WORKER.equals(role)) {
+            this.evolver.addEvolutionObserver
+                (wrapObserver(this, initParams.getProperty("outputDispatch")));
+        }
         this.beginEvolution();
     }
 
@@ -149,7 +187,36 @@ public class Genie implements EvolutionObserver {
             Class theClass = Class.forName(testerClassName);
             FitnessTester fitnessTester = (FitnessTester)theClass.newInstance();
 
-            this.evolver = new Evolver();
+            String cacheSize = initParams.getProperty("fitnessCacheSize");
+            if (cacheSize != null && Integer.parseInt(cacheSize.trim()) > 0) {
+                this.fitnessCache = new CachingFitnessTester(fitnessTester,
+                    Integer.parseInt(cacheSize.trim()));
+                fitnessTester = this.fitnessCache;
+            }
+
+            if (COORDINATOR.equals(this.role)) {
+                IslandCoordinator coordinator = new IslandCoordinator
+                    (getCoordinatorPort(), Integer.parseInt
+                        (initParams.getProperty("workers", "1").trim()));
+                coordinator.setMigrationTopology(getMigrationTopology());
+                this.evolver = coordinator;
+            } else if (WORKER.equals(this.role)) {
+                IslandWorker worker = new IslandWorker(initParams.getProperty
+                    ("coordinatorHost", "localhost").trim(),
+                    getCoordinatorPort());
+                configureIslands(worker);
+                this.evolver = worker;
+            } else {
+                this.evolver = createIslandEvolver();
+            }
+            String steadyState = initParams.getProperty("steadyState");
+            if (this.evolver == null && steadyState != null &&
+                    steadyState.trim().equalsIgnoreCase("true")) {
+                this.evolver = new SteadyStateEvolver();
+            }
+            if (this.evolver == null) {
+                this.evolver = new Evolver();
+            }
             evolver.setAlphabetSize(alphabetSize);
             evolver.setChromosomeType(chromType);
             evolver.setCrossoversPerGeneration(crossoversPerGen);
@@ -164,16 +231,67 @@ public class Genie implements EvolutionObserver {
             evolver.setStopAtScore(stopAtScore);
             evolver.setDoStopAtScore(doStopAtScore);
 
+            String packGenes = initParams.getProperty("packGenes");
+            if (packGenes != null) {
+                evolver.setPackGenes(packGenes.trim().equalsIgnoreCase("true"));
+            }
+
+            String doubleBuffer = initParams.getProperty("doubleBuffer");
+            if (doubleBuffer != null) {
+                evolver.setDoubleBuffered
+                    (doubleBuffer.trim().equalsIgnoreCase("true"));
+            }
+
+            String randomSeed = initParams.getProperty("randomSeed");
+            if (randomSeed != null &&
+                    !randomSeed.trim().equalsIgnoreCase("none")) {
+                evolver.setRandomSeed(Long.parseLong(randomSeed.trim()));
+            }
+
+            String selection = initParams.getProperty("selection");
+            if (selection != null) {
+                evolver.setSelectionStrategy(getSelectionStrategy(selection));
+            }
+
+            String earlyExit = initParams.getProperty("earlyExit");
+            if (earlyExit != null) {
+                evolver.setEarlyExit
+                    (earlyExit.trim().equalsIgnoreCase("true"));
+            }
+
+            String parallelism = initParams.getProperty("parallelism");
+            if (parallelism != null) {
+                evolver.setParallelism(Integer.parseInt(parallelism.trim()));
+            }
+
+            String producerParallelism =
+                initParams.getProperty("producerParallelism");
+            if (producerParallelism != null) {
+                evolver.setProducerParallelism
+                    (Integer.parseInt(producerParallelism.trim()));
+            }
+
+            // a worker's generations are observed by its coordinator
             String observers = initParams.getProperty("observers");
-            if (observers != null && !(observers.equalsIgnoreCase("none"))) {
+            if (observers != null && !(observers.equalsIgnoreCase("none")) &&
+                    !WORKER.equals(this.role)) {
                 StringTokenizer tokenizer = new StringTokenizer(observers, ",");
                 String token = "";
                 while(tokenizer.hasMoreTokens()) {
-                    token = tokenizer.nextToken();
-                    Class observerClass = Class.forName(token.trim());
+                    token = tokenizer.nextToken().trim();
+                    // a class name may be followed by ":" and the way
+                    // generations are to be dispatched to it
+                    String dispatch = null;
+                    int colon = token.indexOf(':');
+                    if (colon >= 0) {
+                        dispatch = token.substring(colon + 1);
+                        token = token.substring(0, colon).trim();
+                    }
+                    Class observerClass = Class.forName(token);
                     EvolutionObserver observer =
                         (EvolutionObserver)observerClass.newInstance();
-                    evolver.addEvolutionObserver(observer);
+                    evolver.addEvolutionObserver
+                        (wrapObserver(observer, dispatch));
                 }
             }
 
@@ -182,6 +300,120 @@ public class Genie implements EvolutionObserver {
         }
     }
 
+    /**
+     * @return The observer itself if dispatch is null or "sync",
+     *  otherwise an AsyncObserver passing generations on to it with
+     *  the given policy ("block", "drop" or "coalesce").
+     */
+    private EvolutionObserver wrapObserver(EvolutionObserver observer,
+            String dispatch) {
+        EvolutionObserver wrapped = observer;
+        if (dispatch != null && !dispatch.trim().equalsIgnoreCase("sync")) {
+            short policy = AsyncObserver.getPolicy(dispatch.trim());
+            if (policy < 0) {
+                throw new IllegalArgumentException("Unknown observer " +
+                    "dispatch: " + dispatch);
+            }
+            int capacity = Integer.parseInt
+                (initParams.getProperty("observerQueueSize", "16").trim());
+            wrapped = new AsyncObserver(observer, capacity, policy);
+        }
+        return wrapped;
+    }
+
+    /**
+     * @return An IslandEvolver set up from the island properties, or
+     *  null if the islands property is missing or less than two.
+     */
+    private IslandEvolver createIslandEvolver() {
+        IslandEvolver islandEvolver = null;
+        String islands = initParams.getProperty("islands");
+        if (islands != null && Integer.parseInt(islands.trim()) > 1) {
+            islandEvolver = new IslandEvolver();
+            configureIslands(islandEvolver);
+        }
+        return islandEvolver;
+    }
+
+    /**
+     * Sets up an IslandEvolver from the island properties.
+     */
+    private void configureIslands(IslandEvolver islandEvolver) {
+        String islands = initParams.getProperty("islands");
+        if (islands != null) {
+            islandEvolver.setNumOfIslands(Integer.parseInt(islands.trim()));
+        } else {
+            islandEvolver.setNumOfIslands(1);
+        }
+
+        String interval = initParams.getProperty("migrationInterval");
+        if (interval != null) {
+            islandEvolver.setMigrationInterval
+                (Integer.parseInt(interval.trim()));
+        }
+
+        String migrants = initParams.getProperty("migrants");
+        if (migrants != null) {
+            islandEvolver.setNumOfMigrants
+                (Integer.parseInt(migrants.trim()));
+        }
+
+        islandEvolver.setMigrationTopology(getMigrationTopology());
+    }
+
+    private MigrationTopology getMigrationTopology() {
+        MigrationTopology topology = new RingTopology();
+        String property = initParams.getProperty("migrationTopology");
+        if (property != null && property.trim().equalsIgnoreCase("all")) {
+            topology = new FullyConnectedTopology();
+        } else if (property != null &&
+                !property.trim().equalsIgnoreCase("ring")) {
+            throw new IllegalArgumentException("Unknown " +
+                "migrationTopology: " + property);
+        }
+        return topology;
+    }
+
+    /**
+     * @return The SelectionStrategy named by the selection property:
+     *  null for "truncation", or a strategy for "tournament", "sus" or
+     *  "rank", which may be followed by ":" and the tournament size or
+     *  the selection pressure.
+     */
+    private SelectionStrategy getSelectionStrategy(String property) {
+        String name = property.trim();
+        String parameter = null;
+        int colon = name.indexOf(':');
+        if (colon >= 0) {
+            parameter = name.substring(colon + 1).trim();
+            name = name.substring(0, colon).trim();
+        }
+        SelectionStrategy selection = null;
+        if (name.equalsIgnoreCase("tournament")) {
+            selection = new TournamentSelection(parameter == null ? 2
+                : Integer.parseInt(parameter));
+        } else if (name.equalsIgnoreCase("sus") && parameter == null) {
+            selection = new StochasticUniversalSelection();
+        } else if (name.equalsIgnoreCase("rank")) {
+            selection = new RankSelection(parameter == null ? 1.5
+                : Double.parseDouble(parameter));
+        } else if (!(name.equalsIgnoreCase("truncation") &&
+                parameter == null)) {
+            throw new IllegalArgumentException("Unknown selection: " +
+                property);
+        }
+        return selection;
+    }
+
+    private int getCoordinatorPort() {
+        String port = initParams.getProperty("coordinatorPort");
+        int portNumber = IslandProtocol.DEFAULT_PORT;
+        if (port != null) {
+            portNumber = Integer.parseInt(port.trim());
+        }
+        return portNumber;
+    }
+
     private void beginEvolution() {
         evolver.evolve();
     }
@@ -265,6 +497,9 @@ public class Genie implements EvolutionObserver {
                     chrom = topScorers[n];
                     this.fileWriter.write("\t" + topScorers[n] + "\n");
                 }
+                if (this.fitnessCache != null) {
+                    this.fileWriter.write("\n" + this.fitnessCache + "\n");
+                }
 
                 this.fileWriter.flush();
             } catch (IOException ioe) {
@@ -277,8 +512,10 @@ public class Genie implements EvolutionObserver {
         if (args.length == 0) {
             System.out.println("Please pass the name of the .properties " +
                 "file as an argument when starting this program.");
-        } else {
+        } else if (args.length == 1) {
             new Genie(args[0]);
+        } else {
+            new Genie(args[0], args[1].trim().toLowerCase());
         }
 
     }
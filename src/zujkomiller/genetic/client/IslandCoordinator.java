@@ -0,0 +1,227 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic.client;
+
+import zujkomiller.genetic.*;
+import java.io.*;
+import java.net.*;
+
+/**
+ * An IslandCoordinator directs a run whose islands are spread over
+ * several IslandWorkers, which may be in other processes or on other
+ * hosts.  It produces no generations of its own.  Instead it listens for
+ * the workers, and for each generation it gathers every worker's
+ * individuals into one Generation for its EvolutionObservers, tracks the
+ * top scorers across all of them, and passes migrants between workers
+ * according to its MigrationTopology.  The run ends for every worker as
+ * soon as any worker reaches its last generation, or as soon as the top
+ * score reaches the stopAtScore.  The messages are described in
+ * IslandProtocol.
+ */
+public class IslandCoordinator extends Evolver {
+
+    private final int port;
+    private final int numOfWorkers;
+    private MigrationTopology topology = new RingTopology();
+
+    /**
+     * @param port The port to listen on for workers.
+     * @param numOfWorkers The number of workers to wait for before
+     *  the run starts.
+     */
+    public IslandCoordinator(int port, int numOfWorkers) {
+        if (numOfWorkers < 1) {
+            throw new IllegalArgumentException("There must be at least " +
+                "one worker.");
+        }
+        this.port = port;
+        this.numOfWorkers = numOfWorkers;
+    }
+
+    /**
+     * Sets the MigrationTopology which decides which workers receive
+     * each worker's migrants.  The default is a RingTopology.
+     */
+    public void setMigrationTopology(MigrationTopology topology) {
+        this.topology = topology;
+    }
+
+    /**
+     * Waits for the workers to connect, coordinates their generations
+     * until the run ends, and returns the final Generation of all of
+     * the workers together.
+     */
+    public Chromosome[] evolve() {
+        Chromosome[] finalGeneration = null;
+        ServerSocket server = null;
+        Socket[] sockets = new Socket[this.numOfWorkers];
+        try {
+            server = new ServerSocket(this.port);
+            DataInputStream[] ins = new DataInputStream[this.numOfWorkers];
+            DataOutputStream[] outs = new DataOutputStream[this.numOfWorkers];
+            for (int n=0; n<this.numOfWorkers; n++) {
+                sockets[n] = server.accept();
+                sockets[n].setTcpNoDelay(true);
+                ins[n] = new DataInputStream(new BufferedInputStream
+                    (sockets[n].getInputStream()));
+                outs[n] = new DataOutputStream(new BufferedOutputStream
+                    (sockets[n].getOutputStream()));
+                IslandProtocol.readHello(ins[n]);
+                outs[n].writeInt(n);
+                outs[n].writeInt(this.numOfWorkers);
+                outs[n].flush();
+            }
+            finalGeneration = runWorkers(ins, outs);
+        } catch (IOException ioe) {
+            throw new IllegalStateException("The island coordinator on " +
+                "port " + this.port + " failed: " + ioe.getMessage());
+        } finally {
+            for (int n=0; n<sockets.length; n++) {
+                close(sockets[n]);
+            }
+            if (server != null) {
+                try {
+                    server.close();
+                } catch (IOException ioe) {
+                    // nothing more to do with it
+                }
+            }
+        }
+        return finalGeneration;
+    }
+
+    private void close(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ioe) {
+                // nothing more to do with it
+            }
+        }
+    }
+
+    private Chromosome[] runWorkers(DataInputStream[] ins,
+            DataOutputStream[] outs) throws IOException {
+        Population combined = null;
+        Generation gen = null;
+        boolean isLastGeneration = false;
+        while (!isLastGeneration) {
+            Population[] reports = new Population[this.numOfWorkers];
+            Population[] emigrants = new Population[this.numOfWorkers];
+            for (int n=0; n<this.numOfWorkers; n++) {
+                byte type = ins[n].readByte();
+                if (type != IslandProtocol.GENERATION) {
+                    throw new IOException("Unexpected message from worker " +
+                        n + ": " + type);
+                }
+                ins[n].readInt(); // the worker's generation number
+                if (ins[n].readBoolean()) {
+                    isLastGeneration = true;
+                }
+                reports[n] = IslandProtocol.readPopulation(ins[n]);
+                emigrants[n] = IslandProtocol.readPopulation(ins[n]);
+            }
+
+            combined = combine(reports, combined);
+            trackTopScorers(combined);
+            this.numOfGenerationsRun++;
+            isLastGeneration = isLastGeneration || (this.doStopAtScore &&
+                this.topScoreSoFar >= this.stopAtScore);
+
+            // answer the workers before notifying the observers,
+            // so that they can get on with the next generation
+            for (int n=0; n<this.numOfWorkers; n++) {
+                outs[n].writeByte(isLastGeneration
+                    ? IslandProtocol.STOP : IslandProtocol.CONTINUE);
+                IslandProtocol.writePopulation(outs[n],
+                    getImmigrants(n, emigrants));
+                outs[n].flush();
+            }
+
+            gen = describeGeneration(gen, combined);
+            notifyObservers(gen, isLastGeneration);
+        }
+        return combined.getChromosomes();
+    }
+
+    /**
+     * Copies every worker's individuals, one worker after another, into
+     * a single Population.  The previous one is reused when
+     * double-buffered and the sizes allow.
+     */
+    private Population combine(Population[] reports, Population previous) {
+        int size = 0;
+        for (int n=0; n<reports.length; n++) {
+            size += reports[n].getSize();
+        }
+        Population combined = previous;
+        if (combined == null || !this.doubleBuffered ||
+                combined.getSize() != size) {
+            combined = new Population(size, reports[0].getMaxLength(),
+                reports[0].getBitsPerGene());
+        }
+        int index = 0;
+        for (int n=0; n<reports.length; n++) {
+            for (int i=0; i<reports[n].getSize(); i++) {
+                combined.copyIndividual(reports[n], i, index);
+                index++;
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * @return All of the emigrants which the MigrationTopology sends
+     *  to the given worker.
+     */
+    private Population getImmigrants(int worker, Population[] emigrants) {
+        int count = 0;
+        for (int n=0; n<emigrants.length; n++) {
+            if (sendsTo(n, worker)) {
+                count += emigrants[n].getSize();
+            }
+        }
+        Population immigrants = new Population(count,
+            emigrants[0].getMaxLength(), emigrants[0].getBitsPerGene());
+        int index = 0;
+        for (int n=0; n<emigrants.length; n++) {
+            if (sendsTo(n, worker)) {
+                for (int i=0; i<emigrants[n].getSize(); i++) {
+                    immigrants.copyIndividual(emigrants[n], i, index);
+                    index++;
+                }
+            }
+        }
+        return immigrants;
+    }
+
+    private boolean sendsTo(int from, int to) {
+        boolean sends = false;
+        int[] destinations =
+            this.topology.getDestinations(from, this.numOfWorkers);
+        for (int n=0; n<destinations.length && !sends; n++) {
+            sends = (destinations[n] == to);
+        }
+        return sends;
+    }
+
+}
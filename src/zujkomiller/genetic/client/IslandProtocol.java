@@ -0,0 +1,155 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic.client;
+
+import zujkomiller.genetic.*;
+import java.io.*;
+
+/**
+ * IslandProtocol defines the binary messages an IslandCoordinator and
+ * its IslandWorkers exchange over TCP, and reads and writes them.  All
+ * values are written with DataOutputStream, so they are big-endian.
+ * <p>
+ * A worker opens the conversation with the MAGIC int and the VERSION
+ * short, and the coordinator answers with the worker's index and the
+ * number of workers, both ints.  After that, for every generation, each
+ * worker sends a GENERATION message:
+ * <pre>
+ *   byte GENERATION, int generationNumber, boolean isLastGeneration,
+ *   population (the worker's individuals),
+ *   population (the worker's emigrants, possibly empty)
+ * </pre>
+ * and waits for the coordinator's reply:
+ * <pre>
+ *   byte CONTINUE or STOP, population (immigrants, possibly empty)
+ * </pre>
+ * A population is written as its size and maxLength (ints) and bits per
+ * gene (a byte), followed by the score (int) and length (short) of each
+ * individual and then its genes: one short apiece when the bits per gene
+ * is zero, otherwise packed several to a byte, lowest bits first.
+ */
+public abstract class IslandProtocol {
+
+    public static final int MAGIC = 0x47454E49; // "GENI"
+    public static final short VERSION = 1;
+
+    public static final byte GENERATION = 1;
+    public static final byte CONTINUE = 2;
+    public static final byte STOP = 3;
+
+    /**
+     * The port used when the coordinatorPort property is missing.
+     */
+    public static final int DEFAULT_PORT = 7170;
+
+    public static void writeHello(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.flush();
+    }
+
+    /**
+     * Reads the MAGIC int and VERSION short sent by a worker.
+     */
+    public static void readHello(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        short version = in.readShort();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Not an island worker of version " +
+                VERSION + ".");
+        }
+    }
+
+    public static void writePopulation(DataOutputStream out,
+            Population population) throws IOException {
+        int size = population.getSize();
+        int bitsPerGene = population.getBitsPerGene();
+        out.writeInt(size);
+        out.writeInt(population.getMaxLength());
+        out.writeByte(bitsPerGene);
+        short[] genes = new short[population.getMaxLength()];
+        for (int i=0; i<size; i++) {
+            int length = population.getGenes(i, genes);
+            out.writeInt(population.getScore(i));
+            out.writeShort(length);
+            if (bitsPerGene == 0) {
+                for (int n=0; n<length; n++) {
+                    out.writeShort(genes[n]);
+                }
+            } else {
+                int genesPerByte = 8 / bitsPerGene;
+                int mask = (1 << bitsPerGene) - 1;
+                for (int n=0; n<length; n+=genesPerByte) {
+                    int packed = 0;
+                    for (int g=0; g<genesPerByte && n+g<length; g++) {
+                        packed |= (genes[n+g] & mask) << (g * bitsPerGene);
+                    }
+                    out.writeByte(packed);
+                }
+            }
+        }
+    }
+
+    public static Population readPopulation(DataInputStream in)
+            throws IOException {
+        int size = in.readInt();
+        int maxLength = in.readInt();
+        int bitsPerGene = in.readByte();
+        Population population = new Population(size, maxLength, bitsPerGene);
+        short[] genes = new short[maxLength];
+        for (int i=0; i<size; i++) {
+            int score = in.readInt();
+            int length = in.readShort();
+            if (length < 0 || length > maxLength) {
+                throw new IOException("Bad Chromosome length: " + length);
+            }
+            if (bitsPerGene == 0) {
+                for (int n=0; n<length; n++) {
+                    genes[n] = in.readShort();
+                }
+            } else {
+                int genesPerByte = 8 / bitsPerGene;
+                int mask = (1 << bitsPerGene) - 1;
+                for (int n=0; n<length; n+=genesPerByte) {
+                    int packed = in.readUnsignedByte();
+                    for (int g=0; g<genesPerByte && n+g<length; g++) {
+                        genes[n+g] = (short)((packed >>> (g * bitsPerGene))
+                            & mask);
+                    }
+                }
+            }
+            population.setGenes(i, genes, length);
+            population.setScore(i, score);
+        }
+        return population;
+    }
+
+    /**
+     * @return A Population with room for no individuals, shaped like
+     *  the given one.
+     */
+    public static Population emptyLike(Population population) {
+        return new Population(0, population.getMaxLength(),
+            population.getBitsPerGene());
+    }
+
+}
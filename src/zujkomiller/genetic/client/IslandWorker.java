@@ -0,0 +1,194 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic.client;
+
+import zujkomiller.genetic.*;
+import java.io.*;
+import java.net.*;
+
+/**
+ * An IslandWorker is an IslandEvolver which runs its islands as part of a
+ * larger run directed by an IslandCoordinator in another process.  After
+ * each generation it sends all of its individuals to the coordinator, along
+ * with copies of its top scorers whenever a migration is due, and settles
+ * any migrants the coordinator sends back on its islands.  It stops when
+ * the coordinator says so, which may be before its own stopping point.
+ * The messages are described in IslandProtocol.
+ */
+public class IslandWorker extends IslandEvolver {
+
+    // how long to keep trying to reach a coordinator which is not up yet
+    private static final int CONNECT_ATTEMPTS = 50;
+    private static final long CONNECT_DELAY = 200;
+
+    private final String host;
+    private final int port;
+
+    private Socket socket = null;
+    private DataInputStream in = null;
+    private DataOutputStream out = null;
+    private int workerIndex = -1;
+
+    /**
+     * @param host The host the IslandCoordinator is running on.
+     * @param port The port the IslandCoordinator is listening on.
+     */
+    public IslandWorker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * @return This worker's index among the coordinator's workers,
+     *  or -1 before it has connected.
+     */
+    public int getWorkerIndex() {
+        return this.workerIndex;
+    }
+
+    /**
+     * Connects to the coordinator, runs the islands and disconnects.
+     */
+    public Chromosome[] evolve() {
+        Chromosome[] finalGeneration = null;
+        try {
+            connect();
+            finalGeneration = super.evolve();
+        } catch (IOException ioe) {
+            throw new IllegalStateException("Could not reach the island " +
+                "coordinator at " + this.host + ":" + this.port + ": " +
+                ioe.getMessage());
+        } finally {
+            disconnect();
+        }
+        return finalGeneration;
+    }
+
+    /**
+     * @return A RandomSource for this worker's islands.  When the run
+     *  is seeded, the seed is offset by the worker's index so that the
+     *  workers, which share their settings, do not all evolve the
+     *  same islands.
+     */
+    protected RandomSource createRandomSource() {
+        return this.seeded
+            ? new RandomSource(this.randomSeed + this.workerIndex)
+            : new RandomSource();
+    }
+
+    private void connect() throws IOException {
+        IOException lastFailure = null;
+        for (int n=0; n<CONNECT_ATTEMPTS && this.socket == null; n++) {
+            try {
+                this.socket = new Socket(this.host, this.port);
+            } catch (ConnectException ce) {
+                lastFailure = ce;
+                try {
+                    Thread.sleep(CONNECT_DELAY);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (this.socket == null) {
+            throw (lastFailure != null) ? lastFailure
+                : new IOException("Interrupted while connecting.");
+        }
+        this.socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream
+            (this.socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream
+            (this.socket.getOutputStream()));
+        IslandProtocol.writeHello(this.out);
+        this.workerIndex = this.in.readInt();
+        int numOfWorkers = this.in.readInt();
+        if (this.workerIndex < 0 || this.workerIndex >= numOfWorkers) {
+            throw new IOException("The coordinator gave this worker the " +
+                "index " + this.workerIndex + " of " + numOfWorkers +
+                " workers.");
+        }
+    }
+
+    private void disconnect() {
+        if (this.socket != null) {
+            try {
+                this.socket.close();
+            } catch (IOException ioe) {
+                // nothing more to do with it
+            }
+            this.socket = null;
+        }
+    }
+
+    /**
+     * Reports the generation to the coordinator and settles any
+     * migrants it sends back.
+     */
+    protected boolean endOfGeneration(Population[] populations,
+            Population combined, boolean isLastGeneration) {
+        boolean stop = isLastGeneration;
+        try {
+            this.out.writeByte(IslandProtocol.GENERATION);
+            this.out.writeInt(this.numOfGenerationsRun);
+            this.out.writeBoolean(isLastGeneration);
+            IslandProtocol.writePopulation(this.out, combined);
+            IslandProtocol.writePopulation(this.out, getEmigrants(combined));
+            this.out.flush();
+
+            byte reply = this.in.readByte();
+            Population immigrants = IslandProtocol.readPopulation(this.in);
+            if (reply == IslandProtocol.STOP) {
+                stop = true;
+            } else if (reply != IslandProtocol.CONTINUE) {
+                throw new IOException("Unexpected message: " + reply);
+            }
+            if (!stop && immigrants.getSize() > 0) {
+                settleImmigrants(populations, immigrants);
+            }
+        } catch (IOException ioe) {
+            throw new IllegalStateException("Lost the island coordinator: " +
+                ioe.getMessage());
+        }
+        return stop;
+    }
+
+    /**
+     * @return Copies of the top numOfMigrants scorers when a migration
+     *  is due, otherwise an empty Population.
+     */
+    private Population getEmigrants(Population combined) {
+        Population emigrants = IslandProtocol.emptyLike(combined);
+        if (this.numOfMigrants > 0 &&
+                this.numOfGenerationsRun % this.migrationInterval == 0) {
+            int[] order = combined.getIndexesByScore(this.numOfMigrants,
+                this.numOfMigrants);
+            emigrants = new Population(this.numOfMigrants,
+                combined.getMaxLength(), combined.getBitsPerGene());
+            for (int m=0; m<this.numOfMigrants; m++) {
+                emigrants.copyIndividual(combined, order[m], m);
+            }
+        }
+        return emigrants;
+    }
+
+}
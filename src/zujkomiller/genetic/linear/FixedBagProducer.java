@@ -24,7 +24,6 @@ package zujkomiller.genetic.linear;
 import zujkomiller.genetic.*;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Random;
 
 /**
  * This class is responsible for creating an initial population
@@ -37,8 +36,6 @@ import java.util.Random;
  */
 public class FixedBagProducer extends GenerationProducer {
 
-    protected Random random = new Random();
-
     public FixedBagProducer(short[] alphabet, int numToReplicate,
             int numOfReplicationsEach, int crossOvers, int mutations,
             int minLength, int maxLength) {
@@ -64,7 +61,13 @@ public class FixedBagProducer extends GenerationProducer {
         for (int n=0; n<genes.length; n++) {
             genes[n] = getRandomValue();
         }
-        return new FixedBagChromosome(genes);
+        Chromosome chrom = null;
+        if (this.bitsPerGene > 0) {
+            chrom = new PackedChromosome(genes, this.bitsPerGene);
+        } else {
+            chrom = new FixedBagChromosome(genes);
+        }
+        return chrom;
     }
 
     /**
@@ -130,6 +133,14 @@ public class FixedBagProducer extends GenerationProducer {
         return nextGen;
     }
 
+    /**
+     * @return true, since doCrossovers crosses the pairs (0, 1), (2, 3)
+     *  and so on.
+     */
+    protected boolean crossesRankedPairs() {
+        return true;
+    }
+
     protected void doCrossovers(Chromosome[] population) {
         // never allow the last chromosome to be crossed-over
         // because it holds the top-scorer from the parent generation
@@ -144,6 +155,20 @@ public class FixedBagProducer extends GenerationProducer {
     }
 
     protected void doCrossover(Chromosome chrom1, Chromosome chrom2) {
+        if (chrom1 instanceof PopulationChromosome &&
+                chrom2 instanceof PopulationChromosome &&
+                ((PopulationChromosome)chrom1).getPopulation() ==
+                    ((PopulationChromosome)chrom2).getPopulation()) {
+            doPopulationCrossover((PopulationChromosome)chrom1,
+                (PopulationChromosome)chrom2);
+            return;
+        }
+        if (chrom1 instanceof PackedChromosome &&
+                chrom2 instanceof PackedChromosome) {
+            doPackedCrossover((PackedChromosome)chrom1,
+                (PackedChromosome)chrom2);
+            return;
+        }
         short[] originalGenes1 = chrom1.getGenes();
         short[] originalGenes2 = chrom2.getGenes();
         short[] newGenes1 = new short[originalGenes1.length];
@@ -175,6 +200,34 @@ public class FixedBagProducer extends GenerationProducer {
         chrom2.setGenes(newGenes2);
     }
 
+    /**
+     * Does the same crossover as doCrossover, exchanging the genes
+     * before the crossover point a whole word at a time.
+     */
+    protected void doPackedCrossover(PackedChromosome chrom1,
+            PackedChromosome chrom2) {
+        // start index is the place to start the crossover
+        int startIndex = random.nextInt(chrom1.getSize()-1);
+        if (startIndex == 0) {
+            startIndex = 1; // starting at 0 does nothing
+        }
+        chrom1.swapPrefix(chrom2, startIndex);
+    }
+
+    /**
+     * Does the same crossover as doCrossover in place, in the gene
+     * buffer of the Population holding both Chromosomes.
+     */
+    protected void doPopulationCrossover(PopulationChromosome chrom1,
+            PopulationChromosome chrom2) {
+        // start index is the place to start the crossover
+        int startIndex = random.nextInt(chrom1.getSize()-1);
+        if (startIndex == 0) {
+            startIndex = 1; // starting at 0 does nothing
+        }
+        chrom1.swapPrefix(chrom2, startIndex);
+    }
+
     protected void doMutations(Chromosome[] population) {
         // never allow the last chromosome to be mutated
         // because it holds the top-scorer from the parent generation
@@ -22,7 +22,6 @@
 package zujkomiller.genetic.linear;
 
 import zujkomiller.genetic.*;
-import java.util.Random;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -37,8 +36,6 @@ import java.util.Arrays;
  */
 public class FixedSetProducer  extends GenerationProducer {
 
-    protected Random random = new Random();
-
     public FixedSetProducer(short[] alphabet, int numToReplicate,
             int numOfReplicationsEach, int crossOvers, int mutations,
             int minLength, int maxLength) {
@@ -71,7 +68,13 @@ public class FixedSetProducer  extends GenerationProducer {
         for (int n=0; n<genes.length; n++) {
             genes[n] = getRandomValue();
         }
-        return new FixedSetChromosome(genes);
+        Chromosome chrom = null;
+        if (this.bitsPerGene > 0) {
+            chrom = new PackedChromosome(genes, this.bitsPerGene);
+        } else {
+            chrom = new FixedSetChromosome(genes);
+        }
+        return chrom;
     }
 
     /**
@@ -158,6 +161,15 @@ public class FixedSetProducer  extends GenerationProducer {
      * the start of the chromosome at a random point.
      */
     protected void doSelfCrossover(Chromosome chrom) {
+        if (chrom instanceof PopulationChromosome) {
+            // rotate the genes in place
+            int startIndex = random.nextInt(chrom.getSize()-1);
+            if (startIndex == 0) {
+                startIndex = 1; // starting at 0 does nothing
+            }
+            ((PopulationChromosome)chrom).rotate(startIndex);
+            return;
+        }
         short[] originalGenes = chrom.getGenes();
         short[] newGenes = new short[originalGenes.length];
         
@@ -197,6 +209,18 @@ public class FixedSetProducer  extends GenerationProducer {
      * Swap a pair of genes.
      */
     private void mutate(Chromosome chrom) {
+        if (chrom instanceof PopulationChromosome) {
+            // swap the genes in place
+            int size = chrom.getSize();
+            if (size >= 3) {
+                int random1 = random.nextInt(size);
+                int random2 = random.nextInt(size);
+                short temp = chrom.getGeneAtIndex(random1);
+                chrom.setGeneAtIndex(chrom.getGeneAtIndex(random2), random1);
+                chrom.setGeneAtIndex(temp, random2);
+            }
+            return;
+        }
         short[] genes = chrom.getGenes();
         if (genes.length >= 3) {
             int random1 = random.nextInt(genes.length);
@@ -26,12 +26,18 @@ import java.util.Arrays;
 
 /**
  * A LinearChromosome has its genes arranged in
- * a linear sequence.
+ * a linear sequence.  Changes made directly to the array
+ * returned by getGenes are not noticed; pass the array back
+ * to setGenes so that the Chromosome knows it is dirty.
  */
 public class LinearChromosome implements Chromosome {
 
+    // unchanged from earlier versions so that stored results stay readable
+    private static final long serialVersionUID = -8232300814991544931L;
+
     protected short[] genes = null;
     protected int score = -1;
+    protected boolean dirty = true;
 
     public LinearChromosome(short[] argGenes) {
         this.genes = argGenes;
@@ -39,6 +45,7 @@ public class LinearChromosome implements Chromosome {
 
     public void setGenes(short[] genes) {
         this.genes = genes;
+        this.dirty = true;
     }
 
     public short[] getGenes() {
@@ -47,6 +54,7 @@ public class LinearChromosome implements Chromosome {
 
     public void setGeneAtIndex(short gene, int index) {
         genes[index] = gene;
+        this.dirty = true;
     }
 
     public short getGeneAtIndex(int index) {
@@ -55,6 +63,11 @@ public class LinearChromosome implements Chromosome {
 
     public void setFitnessScore(int score) {
         this.score = score;
+        this.dirty = false;
+    }
+
+    public boolean isDirty() {
+        return this.dirty;
     }
 
     public int getFitnessScore() {
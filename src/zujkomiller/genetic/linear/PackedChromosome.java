@@ -0,0 +1,256 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.genetic.linear;
+
+import zujkomiller.genetic.*;
+
+/**
+ * A PackedChromosome is a linear Chromosome whose genes are packed into
+ * an array of longs with 2, 4 or 8 bits per gene (see GenePacking),
+ * rather than being stored one gene per short.  With an alphabet of four
+ * values, such as the directions in a maze, it takes one eighth of the
+ * memory of a LinearChromosome, and crossovers can exchange whole words
+ * of genes at a time.
+ * <p>
+ * getGenes() returns a new unpacked array on each call; code which reads
+ * the genes of many Chromosomes should use getGenes(short[]) instead.
+ */
+public class PackedChromosome implements Chromosome {
+
+    private static final long serialVersionUID = -3284107192516224114L;
+
+    protected long[] words = null;
+    protected int length = 0;
+    protected final int bitsPerGene;
+    protected int score = -1;
+    protected boolean dirty = true;
+
+    /**
+     * @param argGenes The genes of the Chromosome; each must fit
+     *  into the given number of bits.
+     * @param bitsPerGene The number of bits used to store each
+     *  gene: 2, 4 or 8.
+     */
+    public PackedChromosome(short[] argGenes, int bitsPerGene) {
+        if (!GenePacking.isValidBitsPerGene(bitsPerGene)) {
+            throw new IllegalArgumentException("Genes can only be packed " +
+                "with 2, 4 or 8 bits per gene.");
+        }
+        this.bitsPerGene = bitsPerGene;
+        setGenes(argGenes);
+    }
+
+    private PackedChromosome(long[] words, int length, int bitsPerGene) {
+        this.words = words;
+        this.length = length;
+        this.bitsPerGene = bitsPerGene;
+    }
+
+    public void setGenes(short[] genes) {
+        int numOfWords = GenePacking.getNumOfWords(genes.length, bitsPerGene);
+        if (this.words == null || this.words.length != numOfWords) {
+            this.words = new long[numOfWords];
+        }
+        GenePacking.pack(genes, genes.length, this.words, 0, bitsPerGene);
+        this.length = genes.length;
+        this.dirty = true;
+    }
+
+    /**
+     * @return A new array holding the unpacked genes.
+     */
+    public short[] getGenes() {
+        short[] genes = new short[this.length];
+        GenePacking.unpack(this.words, 0, bitsPerGene, genes, this.length);
+        return genes;
+    }
+
+    /**
+     * Unpacks the genes into the given array, which must be at least
+     * as long as the Chromosome.
+     *
+     * @return The number of genes copied.
+     */
+    public int getGenes(short[] genes) {
+        GenePacking.unpack(this.words, 0, bitsPerGene, genes, this.length);
+        return this.length;
+    }
+
+    public void setGeneAtIndex(short gene, int index) {
+        checkIndex(index);
+        GenePacking.setGene(this.words, 0, bitsPerGene, index, gene);
+        this.dirty = true;
+    }
+
+    public short getGeneAtIndex(int index) {
+        checkIndex(index);
+        return GenePacking.getGene(this.words, 0, bitsPerGene, index);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.length) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    public void setFitnessScore(int score) {
+        this.score = score;
+        this.dirty = false;
+    }
+
+    public boolean isDirty() {
+        return this.dirty;
+    }
+
+    public int getFitnessScore() {
+        return this.score;
+    }
+
+    /**
+     * @return The number of genes in the Chromosome.
+     */
+    public int getSize() {
+        return this.length;
+    }
+
+    /**
+     * @return The number of bits used to store each gene.
+     */
+    public int getBitsPerGene() {
+        return this.bitsPerGene;
+    }
+
+    /**
+     * @return The packed genes themselves (see GenePacking).  Words
+     *  past the last gene may hold unused bits.
+     */
+    public long[] getWords() {
+        return this.words;
+    }
+
+    /**
+     * Exchanges the first numOfGenes genes of this Chromosome with those
+     * of the other, working a whole word at a time.  Both Chromosomes
+     * must pack their genes with the same number of bits and have at
+     * least numOfGenes genes.
+     */
+    public void swapPrefix(PackedChromosome other, int numOfGenes) {
+        if (other.bitsPerGene != this.bitsPerGene) {
+            throw new IllegalArgumentException("Both Chromosomes must " +
+                "use the same number of bits per gene.");
+        }
+        if (numOfGenes > this.length || numOfGenes > other.length) {
+            throw new ArrayIndexOutOfBoundsException(numOfGenes);
+        }
+        GenePacking.swapPrefix(this.words, 0, other.words, 0,
+            bitsPerGene, numOfGenes);
+        this.dirty = true;
+        other.dirty = true;
+    }
+
+    /**
+     * Exchanges all of the genes of this Chromosome with those of
+     * the other, without copying any of them.
+     */
+    public void swapContents(PackedChromosome other) {
+        if (other.bitsPerGene != this.bitsPerGene) {
+            throw new IllegalArgumentException("Both Chromosomes must " +
+                "use the same number of bits per gene.");
+        }
+        long[] tempWords = this.words;
+        int tempLength = this.length;
+        this.words = other.words;
+        this.length = other.length;
+        other.words = tempWords;
+        other.length = tempLength;
+        this.dirty = true;
+        other.dirty = true;
+    }
+
+    /**
+     * @return The genes in this Chromosome separated by cammas
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer();
+        for (int n=0; n<this.length; n++) {
+            buffer.append(getGeneAtIndex(n));
+            if (n < (this.length - 1)) {
+                buffer.append(", ");
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Implementation of Comparator interface.
+     * Allows sorting of Chromosomes based on their fitness scores:
+     * those with a higher fitness score are listed first.
+     */
+    public int compare(Object chrom1, Object chrom2) {
+        int score1 = ((Chromosome)chrom1).getFitnessScore();
+        int score2 = ((Chromosome)chrom2).getFitnessScore();
+        int comparison = 0;
+        if (score1 < score2) {
+            comparison = 1;
+        } else if (score1 > score2) {
+            comparison = -1;
+        }
+        return comparison;
+    }
+
+    /**
+     * PackedChromosomes are logically equal if they have the same
+     * fitness score and consist of the same genes.
+     */
+    public boolean equals(Object other) {
+        boolean isEqual = false;
+        if (other instanceof PackedChromosome) {
+            PackedChromosome chrom = (PackedChromosome)other;
+            if (chrom.score == this.score && chrom.length == this.length &&
+                    chrom.bitsPerGene == this.bitsPerGene) {
+                isEqual = true;
+                for (int n=0; n<this.length && isEqual; n++) {
+                    isEqual = chrom.getGeneAtIndex(n) == getGeneAtIndex(n);
+                }
+            }
+        }
+        return isEqual;
+    }
+
+    public int hashCode() {
+        int hash = this.score;
+        for (int n=0; n<this.length; n++) {
+            hash = (31 * hash) + getGeneAtIndex(n);
+        }
+        return hash;
+    }
+
+    /**
+     * @return a PackedChromosome which contains a copy of this
+     *  PackedChromosome's genes, and does not yet have a fitness score.
+     */
+    public Chromosome getUnscoredClone() {
+        return new PackedChromosome(this.words.clone(), this.length,
+            this.bitsPerGene);
+    }
+
+}
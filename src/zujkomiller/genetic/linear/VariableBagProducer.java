@@ -22,7 +22,6 @@
 package zujkomiller.genetic.linear;
 
 import zujkomiller.genetic.*;
-import java.util.Random;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -42,8 +41,6 @@ public class VariableBagProducer  extends GenerationProducer {
     private static final int DECREASE_LENGTH = 1;
     private static final int INCREASE_LENGTH = 2;
 
-    private Random random = new Random();
-
     public VariableBagProducer(short[] alphabet, int numToReplicate,
             int numOfReplicationsEach, int crossOvers, int mutations,
             int minLength, int maxLength) {
@@ -76,7 +73,13 @@ public class VariableBagProducer  extends GenerationProducer {
         for (int n=0; n<genes.length; n++) {
             genes[n] = getRandomValue();
         }
-        return new FixedBagChromosome(genes);
+        Chromosome chrom = null;
+        if (this.bitsPerGene > 0) {
+            chrom = new PackedChromosome(genes, this.bitsPerGene);
+        } else {
+            chrom = new FixedBagChromosome(genes);
+        }
+        return chrom;
     }
 
     /**
@@ -142,6 +145,14 @@ public class VariableBagProducer  extends GenerationProducer {
         return nextGen;
     }
 
+    /**
+     * @return true, since doCrossovers crosses the pairs (0, 1), (2, 3)
+     *  and so on.
+     */
+    protected boolean crossesRankedPairs() {
+        return true;
+    }
+
     protected void doCrossovers(Chromosome[] population) {
         // never allow the last chromosome to be crossed-over
         // because it holds the top-scorer from the parent generation
@@ -156,6 +167,20 @@ public class VariableBagProducer  extends GenerationProducer {
     }
 
     protected void doCrossover(Chromosome chrom1, Chromosome chrom2) {
+        if (chrom1 instanceof PopulationChromosome &&
+                chrom2 instanceof PopulationChromosome &&
+                ((PopulationChromosome)chrom1).getPopulation() ==
+                    ((PopulationChromosome)chrom2).getPopulation()) {
+            doPopulationCrossover((PopulationChromosome)chrom1,
+                (PopulationChromosome)chrom2);
+            return;
+        }
+        if (chrom1 instanceof PackedChromosome &&
+                chrom2 instanceof PackedChromosome) {
+            doPackedCrossover((PackedChromosome)chrom1,
+                (PackedChromosome)chrom2);
+            return;
+        }
         short[] originalGenes1 = chrom1.getGenes();
         short[] originalGenes2 = chrom2.getGenes();
 
@@ -202,6 +227,57 @@ public class VariableBagProducer  extends GenerationProducer {
         chrom2.setGenes(newGenes2);
     }
 
+    /**
+     * Does the same crossover as doCrossover without unpacking the
+     * genes: exchanging the genes before the crossover point and then
+     * exchanging the Chromosomes' contents leaves each Chromosome with
+     * its own genes before the crossover point and the other's after it.
+     */
+    protected void doPackedCrossover(PackedChromosome chrom1,
+            PackedChromosome chrom2) {
+        // use the shortest chromosome to choose the
+        // crossover point
+        int shortestLength = Math.min(chrom1.getSize(), chrom2.getSize());
+
+        // start index is the place to start the crossover
+        int startIndex = 1;
+        int maxIndex = shortestLength-1;
+        if (maxIndex > 0) {
+            startIndex = random.nextInt(maxIndex + 1);
+        }
+        // starting at 0 is meaningless, so keep trying
+        while (startIndex == 0) {
+            startIndex = random.nextInt(maxIndex + 1);
+        }
+
+        chrom1.swapPrefix(chrom2, startIndex);
+        chrom1.swapContents(chrom2);
+    }
+
+    /**
+     * Does the same crossover as doCrossover in place, in the gene
+     * buffer of the Population holding both Chromosomes.
+     */
+    protected void doPopulationCrossover(PopulationChromosome chrom1,
+            PopulationChromosome chrom2) {
+        // use the shortest chromosome to choose the
+        // crossover point
+        int shortestLength = Math.min(chrom1.getSize(), chrom2.getSize());
+
+        // start index is the place to start the crossover
+        int startIndex = 1;
+        int maxIndex = shortestLength-1;
+        if (maxIndex > 0) {
+            startIndex = random.nextInt(maxIndex + 1);
+        }
+        // starting at 0 is meaningless, so keep trying
+        while (startIndex == 0) {
+            startIndex = random.nextInt(maxIndex + 1);
+        }
+
+        chrom1.swapTails(chrom2, startIndex);
+    }
+
     protected void doMutations(Chromosome[] population) {
         // never allow the last chromosome to be mutated
         // because it holds the top-scorer from the parent generation
@@ -250,7 +326,11 @@ public class VariableBagProducer  extends GenerationProducer {
                 break;
 
             case DECREASE_LENGTH :
-                if (chromSize >= 1) {
+                if (chromSize >= 1 && chrom instanceof PopulationChromosome) {
+                    // remove the gene in place
+                    int randomIndex = random.nextInt(chromSize);
+                    ((PopulationChromosome)chrom).removeGene(randomIndex);
+                } else if (chromSize >= 1) {
                     int randomIndex = random.nextInt(chromSize);
                     short[] newGenes = new short[chromSize-1];
                     boolean removedGene = false;
@@ -270,7 +350,12 @@ public class VariableBagProducer  extends GenerationProducer {
                 break;
 
             case INCREASE_LENGTH :
-                if (chromSize >= 1) {
+                if (chromSize >= 1 && chrom instanceof PopulationChromosome) {
+                    // insert the new gene in place
+                    int randomIndex = random.nextInt(chromSize);
+                    ((PopulationChromosome)chrom).insertGene(randomIndex,
+                        getRandomValue());
+                } else if (chromSize >= 1) {
                     int randomIndex = random.nextInt(chromSize);
                     short[] newGenes = new short[chromSize+1];
                     boolean insertedNewGene = false;
@@ -22,7 +22,6 @@
 package zujkomiller.genetic.linear;
 
 import zujkomiller.genetic.*;
-import java.util.Random;
 import java.util.*;
 
 /**
@@ -41,8 +40,6 @@ public class VariableSetProducer  extends GenerationProducer {
     private static final int DECREASE_LENGTH = 1;
     private static final int INCREASE_LENGTH = 2;
 
-    protected Random random = new Random();
-
     HashSet allValues = null;
 
     public VariableSetProducer(short[] alphabet, int numToReplicate,
@@ -89,7 +86,13 @@ public class VariableSetProducer  extends GenerationProducer {
         for (int n=0; n<genes.length; n++) {
             genes[n] = getRandomValue();
         }
-        return new FixedBagChromosome(genes);
+        Chromosome chrom = null;
+        if (this.bitsPerGene > 0) {
+            chrom = new PackedChromosome(genes, this.bitsPerGene);
+        } else {
+            chrom = new FixedBagChromosome(genes);
+        }
+        return chrom;
     }
 
     /**
@@ -193,6 +196,15 @@ public class VariableSetProducer  extends GenerationProducer {
     }
 
     protected void doSelfCrossover(Chromosome chrom) {
+        if (chrom instanceof PopulationChromosome) {
+            // rotate the genes in place
+            int startIndex = random.nextInt(chrom.getSize()-1);
+            if (startIndex == 0) {
+                startIndex = 1; // starting at 0 does nothing
+            }
+            ((PopulationChromosome)chrom).rotate(startIndex);
+            return;
+        }
         short[] originalGenes = chrom.getGenes();
         short[] newGenes = new short[originalGenes.length];
         // start index is the place to start the crossover
@@ -256,6 +268,18 @@ public class VariableSetProducer  extends GenerationProducer {
 
         switch (whatToDo) {
             case LEAVE_LENGTH_SAME :
+                if (chrom instanceof PopulationChromosome) {
+                    // swap the genes in place
+                    if (chromSize >= 3) {
+                        int random1 = random.nextInt(chromSize);
+                        int random2 = random.nextInt(chromSize);
+                        short temp = chrom.getGeneAtIndex(random1);
+                        chrom.setGeneAtIndex(chrom.getGeneAtIndex(random2),
+                            random1);
+                        chrom.setGeneAtIndex(temp, random2);
+                    }
+                    break;
+                }
                 short[] genes = chrom.getGenes();
                 if (genes.length >= 3) {
                     int random1 = random.nextInt(genes.length);
@@ -268,7 +292,11 @@ public class VariableSetProducer  extends GenerationProducer {
                 break;
 
             case DECREASE_LENGTH :
-                if (chromSize >= 1) {
+                if (chromSize >= 1 && chrom instanceof PopulationChromosome) {
+                    // remove the gene in place
+                    int randomIndex = random.nextInt(chromSize);
+                    ((PopulationChromosome)chrom).removeGene(randomIndex);
+                } else if (chromSize >= 1) {
                     int randomIndex = random.nextInt(chromSize);
                     short[] newGenes = new short[chromSize-1];
                     boolean removedGene = false;
@@ -288,7 +316,12 @@ public class VariableSetProducer  extends GenerationProducer {
                 break;
 
             case INCREASE_LENGTH :
-                if (chromSize >= 1) {
+                if (chromSize >= 1 && chrom instanceof PopulationChromosome) {
+                    // insert the new gene in place
+                    int randomIndex = random.nextInt(chromSize);
+                    ((PopulationChromosome)chrom).insertGene(randomIndex,
+                        getRandomValue(chrom.getGenes()));
+                } else if (chromSize >= 1) {
                     int randomIndex = random.nextInt(chromSize);
                     short[] newGenes = new short[chromSize+1];
                     boolean insertedNewGene = false;
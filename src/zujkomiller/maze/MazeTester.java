@@ -22,47 +22,59 @@
 package zujkomiller.maze;
 
 import zujkomiller.genetic.*;
+import zujkomiller.genetic.linear.PackedChromosome;
 import zujkomiller.maze.model.*;
 import zujkomiller.maze.results.*;
 import zujkomiller.maze.persistence.MazeAccessor;
+import zujkomiller.maze.persistence.ResultsWriter;
 
 import java.io.IOException;
 import java.util.*;
 
-public class MazeTester implements FitnessTester, EvolutionObserver {
+public class MazeTester implements BoundedFitnessTester, EvolutionObserver {
 
     private static final String PROP_FILE = "maze.bin.MazeGenetic";
 
     private static zujkomiller.maze.model.Maze maze = null;
-    private static MazeEvolutionData data = null;
+    private static Properties properties = null;
     private static Location entry = null;
     private static Location destination = null;
+    private static CompiledMaze compiledMaze = null;
+    private static int destinationCell = CompiledMaze.WALL;
     private static int destinationX = 0;
     private static int destinationY = 0;
     private static int maxMovesPossible = 0;
     private static int bonus = 0;
     private static boolean outputResultOnly = false;
     private static int outputGenerations = 1;
+    // the results file, opened when the first generation arrives
+    private static ResultsWriter results = null;
+    private static boolean resultsFailed = false;
+    private static int bitsPerGene = 0;
+    private static int resultsSyncInterval = 1;
+    // the fewest moves from each cell to the destination, or null
+    // when an unfinished walk is scored by Manhattan distance
+    private static int[] distances = null;
+
+    // the Traveler and gene array of each thread walking the maze
+    private static final ThreadLocal scratch = new ThreadLocal() {
+        protected Object initialValue() {
+            return new Scratch();
+        }
+    };
 
     static {
         ResourceBundle resources = ResourceBundle.getBundle(PROP_FILE);
-        Properties properties = getProperties(resources);
+        properties = getProperties(resources);
         try {
             String mazeName = resources.getString("maze");
             maze = MazeAccessor.load(mazeName);
-            int numOfGenerations =
-                Integer.parseInt(resources.getString("numOfGenerations"));
-            int outputGens = 
-                Integer.parseInt(resources.getString("outputGenerations"));
-            int maxToStore = 1;
-            if (outputGens != 0 && numOfGenerations != 0) {
-                maxToStore = numOfGenerations/outputGens;
-            }
-            data = new MazeEvolutionData(maze, properties, maxToStore);
             entry = maze.getEntryLocation();
             destination = maze.getDestination();
             destinationX = destination.getXCoord();
             destinationY = destination.getYCoord();
+            compiledMaze = maze.getCompiledMaze();
+            destinationCell = compiledMaze.getDestinationCell();
             maxMovesPossible =
                 Integer.parseInt(resources.getString("maxChromLength"));
             bonus =
@@ -73,6 +85,21 @@ public class MazeTester implements FitnessTester, EvolutionObserver {
             }
             outputGenerations =
                 Integer.parseInt(resources.getString("outputGenerations"));
+            bitsPerGene = GenePacking.getBitsPerGene
+                (Integer.parseInt(resources.getString("alphabetSize")));
+            String syncInterval = properties.getProperty("resultsSyncInterval");
+            if (syncInterval != null) {
+                resultsSyncInterval = Integer.parseInt(syncInterval.trim());
+            }
+            String measure = properties.getProperty("distanceMeasure");
+            if (measure != null && measure.trim().equalsIgnoreCase("path")) {
+                distances = compiledMaze.getDistancesToDestination();
+            } else if (measure != null &&
+                    !measure.trim().equalsIgnoreCase("manhattan")) {
+                throw new IllegalArgumentException
+                    ("distanceMeasure must be manhattan or path, not " +
+                    measure);
+            }
         } catch (Exception ex) {
             ex.printStackTrace();
         }
@@ -91,28 +118,156 @@ public class MazeTester implements FitnessTester, EvolutionObserver {
 
     /**
      * Returns an int indicating the fitness of the
-     * Chromosome passed in as a parameter.
+     * Chromosome passed in as a parameter.  This may be called
+     * from several threads at once: it only reads the maze settings
+     * loaded when the class is initialized, and each thread walks the
+     * maze with its own Traveler.
      */
     public int getFitnessScore(Chromosome chromosome) {
-        int score = 0;
-        Traveler traveler = new Traveler(entry);
-        short[] genes = chromosome.getGenes();
-        Location currentLocation = null;
+        return getFitnessScore(chromosome, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Returns the fitness score of the Chromosome, stopping its walk
+     * through the maze as soon as it can no longer score as high as
+     * bar and returning the most it could still have scored instead.
+     */
+    public int getFitnessScore(Chromosome chromosome, int bar) {
+        return walk(chromosome, (Scratch)scratch.get(), bar);
+    }
+
+    public void getFitnessScores(Chromosome[] chromosomes, int start,
+            int end, int[] scores) {
+        getFitnessScores(chromosomes, start, end, scores, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Scores a block of Chromosomes, walking each one through the maze
+     * in turn.  Like getFitnessScore, this may be called from several
+     * threads at once; each thread reuses its own Traveler and gene
+     * array for every walk it makes.  A walk is stopped as soon as it
+     * can no longer score as high as bar (see
+     * getFitnessScore(Chromosome, int)).
+     */
+    public void getFitnessScores(Chromosome[] chromosomes, int start,
+            int end, int[] scores, int bar) {
+        Scratch work = (Scratch)scratch.get();
+        for (int i=start; i<end; i++) {
+            scores[i] = walk(chromosomes[i], work, bar);
+        }
+    }
+
+    /**
+     * Walks the Chromosome through the maze with the thread's Traveler.
+     * Packed Chromosomes and views of a Population are unpacked into
+     * the thread's gene array rather than into a new array each time.
+     */
+    private int walk(Chromosome chrom, Scratch work, int bar) {
+        short[] genes = null;
+        int length = 0;
+        if (chrom instanceof PackedChromosome ||
+                chrom instanceof PopulationChromosome) {
+            if (work.genes.length < chrom.getSize()) {
+                work.genes = new short[chrom.getSize()];
+            }
+            genes = work.genes;
+            length = (chrom instanceof PackedChromosome)
+                ? ((PackedChromosome)chrom).getGenes(genes)
+                : ((PopulationChromosome)chrom).getGenes(genes);
+        } else {
+            genes = chrom.getGenes();
+            length = genes.length;
+        }
+        work.traveler.reset();
+        return walk(work.traveler, genes, length, bar);
+    }
+
+    /**
+     * Walks the traveler through the maze following the directions
+     * in the first numOfGenes genes and returns the resulting
+     * fitness score.
+     */
+    private int walk(Traveler traveler, short[] genes, int numOfGenes,
+            int bar) {
         boolean reachedDestination = false;
         int numOfGenesUsed = 0;
+        int bound = Integer.MAX_VALUE;
 
-        for (numOfGenesUsed=0; numOfGenesUsed<genes.length; numOfGenesUsed++) {
-            traveler.travel(GeneTranslator.getDirection(genes[numOfGenesUsed]));
-            currentLocation = traveler.getCurrentLocation();
-            if (currentLocation.equals(destination)) {
+        for (numOfGenesUsed=0; numOfGenesUsed<numOfGenes; numOfGenesUsed++) {
+            if (bar != Integer.MIN_VALUE) {
+                bound = getUpperBound(traveler.getCurrentCell(),
+                    numOfGenesUsed, numOfGenes);
+                if (bound < bar) {
+                    break;
+                }
+            }
+            traveler.travel(GeneTranslator.getDirectionIndex(genes[numOfGenesUsed]));
+            if (traveler.getCurrentCell() == destinationCell) {
                 reachedDestination = true;
                 break;
             }
         }
+        int score = bound;
+        if (bound >= bar) {
+            score = getScore(traveler.getCurrentCell(),
+                traveler.getNumOfTimesMoved(),
+                traveler.getNumOfTimesHitWall(), reachedDestination,
+                numOfGenesUsed, numOfGenes);
+        }
+        return score;
+    }
+
+    /**
+     * Returns the most that a walk which is in currentCell after
+     * numOfGenesUsed of its numOfGenes genes could still score.
+     */
+    private int getUpperBound(int currentCell, int numOfGenesUsed,
+            int numOfGenes) {
+        int movesLeft = numOfGenes - numOfGenesUsed;
+        int bound = Integer.MIN_VALUE;
+
+        // Every gene used either moves the traveler or hits a wall,
+        // so a walk which reaches the destination scores
+        // maxMovesPossible + bonus - numOfGenes, or one less, however
+        // it gets there.  It can only get there if the shortest path
+        // is no longer than the genes left.
+        if (compiledMaze.getDistanceToDestination(currentCell) <= movesLeft) {
+            bound = maxMovesPossible + bonus - numOfGenes;
+        }
 
-        int numOfMovesTaken = traveler.getNumOfTimesMoved();
-        int numTimesHitWall = traveler.getNumOfTimesHitWall();
+        // Otherwise each move brings it at most one step closer,
+        // and it ends at least one step away.
+        int closest = Math.max(1, getDistance(currentCell) - movesLeft);
+        return Math.max(bound, maxMovesPossible - closest);
+    }
+
+    /**
+     * @return The distance from the cell to the destination used to
+     *  score a walk which doesn't reach it.
+     */
+    private int getDistance(int currentCell) {
+        int distance = 0;
+        if (distances != null) {
+            distance = distances[currentCell];
+            if (distance == CompiledMaze.UNREACHABLE) {
+                distance = distances.length;
+            }
+        } else {
+            int xDistance = Math.abs(destinationX - compiledMaze.getXCoord(currentCell));
+            int yDistance = Math.abs(destinationY - compiledMaze.getYCoord(currentCell));
+            distance = xDistance + yDistance;
+        }
+        return distance;
+    }
 
+    /**
+     * Returns the fitness score of a walk which ended in currentCell
+     * after numOfGenesUsed of its numOfGenes genes.
+     */
+    private int getScore(int currentCell, int numOfMovesTaken,
+            int numTimesHitWall, boolean reachedDestination,
+            int numOfGenesUsed, int numOfGenes) {
+        int score = 0;
 
         // Formula for calculating the score:
         // the fewer moves the better, so subtract the
@@ -122,19 +277,19 @@ public class MazeTester implements FitnessTester, EvolutionObserver {
         // subtract points for any extra genes at the end of
         // the chromosome which weren't used.
         // If the destination wasn't reached, then the score
-        // is determined by how close to the destination it got.
+        // is determined by how close to the destination it got,
+        // either as the crow flies or along the shortest path
+        // through the maze.
         if (!reachedDestination) {
             score = 0;
-            int xDistance = Math.abs(destinationX - currentLocation.getXCoord());
-            int yDistance = Math.abs(destinationY - currentLocation.getYCoord());
-            score = maxMovesPossible - (xDistance + yDistance);
+            score = maxMovesPossible - getDistance(currentCell);
         } else {
             score = 0;
             score = score + maxMovesPossible - numOfMovesTaken;
             score = score - numTimesHitWall;
             score = score + bonus;
-            score = (numOfGenesUsed != (genes.length - 1)) ?
-                (score - (genes.length-numOfGenesUsed)) : score;
+            score = (numOfGenesUsed != (numOfGenes - 1)) ?
+                (score - (numOfGenes-numOfGenesUsed)) : score;
         }
 
         return score;
@@ -161,27 +316,57 @@ public class MazeTester implements FitnessTester, EvolutionObserver {
 
         int generationNumber = gen.getGenerationNumber();
 
-        // stuff completed generations into the
-        // MazeEvolutionData object
+        // write completed generations straight to the results
+        // file, so that none of them need to be kept
         if ((!outputResultOnly &&
                 (generationNumber % this.outputGenerations == 0)) ||
                     isLastGeneration || generationNumber == 1) {
-            data.addGeneration(gen);
+            try {
+                if (results == null && !resultsFailed) {
+                    results = MazeAccessor.openResults(maze, properties,
+                        bitsPerGene, resultsSyncInterval);
+                }
+                if (results != null) {
+                    results.append(gen);
+                }
+            } catch (IOException ioe) {
+                abandonResults(ioe);
+            }
         }
 
-        // stuff final data into the
-        // MazeEvolutionData object
-        if (isLastGeneration) {
-            data.setFinalTopScore(observable.getTopScore());
-            data.setTopScorers(observable.getTopScorers());
-            data.buildScoreData();
+        // finish the results file with the final data
+        if (isLastGeneration && results != null) {
             try {
-                MazeAccessor.store(data);
+                results.close(observable.getTopScore(),
+                    observable.getTopScorers());
+                results = null;
             } catch (IOException ioe) {
-                System.out.println("error saving the results");
-                ioe.printStackTrace();
+                abandonResults(ioe);
             }
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Gives up on writing the results after an error, leaving what
+     * was written so far in the file.
+     */
+    private static void abandonResults(IOException ioe) {
+        System.out.println("error saving the results");
+        ioe.printStackTrace();
+        if (results != null) {
+            results.abandon();
+            results = null;
+        }
+        resultsFailed = true;
+    }
+
+    /**
+     * The Traveler and gene array of one thread walking the maze.  The
+     * gene array only grows.
+     */
+    private static class Scratch {
+        final Traveler traveler = new Traveler(compiledMaze);
+        short[] genes = new short[maxMovesPossible];
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.maze.model;
+
+import java.util.*;
+
+/**
+ * A CompiledMaze is a flat, primitive form of a Maze which is cheap to
+ * walk through.  Each location in the maze is identified by an int cell
+ * index, and moving in a direction is a single array lookup in a
+ * transition table, with no Location objects, Direction comparisons or
+ * Wall checks involved.  A CompiledMaze is produced by calling
+ * Maze.getCompiledMaze(); it does not change once it has been created.
+ * <p>
+ * Cell indexes run row by row: the cell for location (x, y) is
+ * y * width + x.  Directions are identified by the indexes returned by
+ * Direction.getIndex().
+ */
+public class CompiledMaze {
+
+    /** The value in the transition table for a move into a wall. */
+    public static final int WALL = -1;
+
+    /**
+     * The distance given for a cell from which the destination
+     * cannot be reached.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int width;
+    private final int height;
+    private final int entryCell;
+    private final int destinationCell;
+
+    // transitions[(cell * Direction.COUNT) + direction] is the cell
+    // reached by moving from the cell in the direction, or WALL
+    private final int[] transitions;
+
+    // bit (1 << direction) is set when there is a wall in that direction
+    private final byte[] wallMasks;
+
+    // used to translate cell indexes back into Locations
+    private final Location[][] locations;
+
+    // distances[cell] is the fewest moves from the cell to the
+    // destination, or UNREACHABLE
+    private final int[] distances;
+
+    CompiledMaze(Maze maze) {
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.locations = maze.getLocations();
+        int numOfCells = this.width * this.height;
+        this.transitions = new int[numOfCells * Direction.COUNT];
+        this.wallMasks = new byte[numOfCells];
+
+        Direction[] directions = Direction.getDirections();
+        for (int y=0; y<this.height; y++) {
+            for (int x=0; x<this.width; x++) {
+                int cell = getCellIndex(x, y);
+                for (int d=0; d<directions.length; d++) {
+                    MazeElement neighbor =
+                        this.locations[x][y].getAdjacentElement(directions[d]);
+                    int next = WALL;
+                    if (neighbor instanceof Location) {
+                        Location loc = (Location)neighbor;
+                        next = getCellIndex(loc.getXCoord(), loc.getYCoord());
+                    } else {
+                        this.wallMasks[cell] |= (byte)(1 << d);
+                    }
+                    this.transitions[(cell * Direction.COUNT) + d] = next;
+                }
+            }
+        }
+
+        this.entryCell = getCellIndex(maze.getEntryLocation());
+        this.destinationCell = getCellIndex(maze.getDestination());
+        this.distances = computeDistances();
+    }
+
+    /**
+     * Finds the length of the shortest path from every cell to the
+     * destination with a breadth first search outward from the
+     * destination.  A wall blocks a move in both directions, so the
+     * moves can be followed backwards from the destination.
+     */
+    private int[] computeDistances() {
+        int numOfCells = this.wallMasks.length;
+        int[] dist = new int[numOfCells];
+        Arrays.fill(dist, UNREACHABLE);
+        if (this.destinationCell != WALL) {
+            int[] queue = new int[numOfCells];
+            int head = 0;
+            int tail = 0;
+            dist[this.destinationCell] = 0;
+            queue[tail++] = this.destinationCell;
+            while (head < tail) {
+                int cell = queue[head++];
+                int base = cell * Direction.COUNT;
+                for (int d=0; d<Direction.COUNT; d++) {
+                    int next = this.transitions[base + d];
+                    if (next != WALL && dist[next] == UNREACHABLE) {
+                        dist[next] = dist[cell] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    private int getCellIndex(Location location) {
+        int cell = WALL;
+        if (location != null) {
+            cell = getCellIndex(location.getXCoord(), location.getYCoord());
+        }
+        return cell;
+    }
+
+    public int getCellIndex(int x, int y) {
+        return (y * this.width) + x;
+    }
+
+    public int getXCoord(int cell) {
+        return cell % this.width;
+    }
+
+    public int getYCoord(int cell) {
+        return cell / this.width;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getNumOfCells() {
+        return this.wallMasks.length;
+    }
+
+    /**
+     * @return The cell index of the maze's entry location, or WALL
+     *  if the maze has no entry location.
+     */
+    public int getEntryCell() {
+        return this.entryCell;
+    }
+
+    /**
+     * @return The cell index of the maze's destination, or WALL
+     *  if the maze has no destination.
+     */
+    public int getDestinationCell() {
+        return this.destinationCell;
+    }
+
+    /**
+     * @param cell The cell to move from.
+     * @param direction The index of the direction in which to move.
+     * @return The cell reached by the move, or WALL if there is
+     *  a wall in that direction.
+     */
+    public int getNextCell(int cell, int direction) {
+        return this.transitions[(cell * Direction.COUNT) + direction];
+    }
+
+    /**
+     * @return A bit mask with bit (1 << direction) set for every
+     *  direction in which the cell has a wall.
+     */
+    public int getWallMask(int cell) {
+        return this.wallMasks[cell];
+    }
+
+    public boolean hasWall(int cell, int direction) {
+        return (this.wallMasks[cell] & (1 << direction)) != 0;
+    }
+
+    /**
+     * @return The fewest moves needed to get from the cell to the
+     *  destination, or UNREACHABLE if there is no way through.
+     */
+    public int getDistanceToDestination(int cell) {
+        return this.distances[cell];
+    }
+
+    /**
+     * @return The distance field itself, indexed by cell, for callers
+     *  which look up distances in a tight loop.  The entry for each
+     *  cell is the same as getDistanceToDestination(cell).  It must
+     *  not be modified.
+     */
+    public int[] getDistancesToDestination() {
+        return this.distances;
+    }
+
+    /**
+     * @return The Location in the original Maze for the cell.
+     */
+    public Location getLocation(int cell) {
+        return this.locations[getXCoord(cell)][getYCoord(cell)];
+    }
+
+    /**
+     * @return The transition table itself, for callers which walk the
+     *  maze in a tight loop.  The entry at (cell * Direction.COUNT) +
+     *  direction is the cell reached, or WALL.  It must not be modified.
+     */
+    public int[] getTransitions() {
+        return this.transitions;
+    }
+
+}
@@ -33,12 +33,40 @@ public class Direction {
     public static final Direction EAST = new Direction(E);
     public static final Direction WEST = new Direction(W);
 
+    /** The number of different directions. */
+    public static final int COUNT = 4;
+
+    private static final Direction[] DIRECTIONS =
+        new Direction[] {NORTH, SOUTH, EAST, WEST};
+
     private short direction;
 
     private Direction(short dir) {
         direction = dir;
     }
 
+    /**
+     * @return A number from 0 to COUNT - 1 identifying this Direction,
+     *  used to index into arrays such as those in CompiledMaze.
+     */
+    public int getIndex() {
+        return this.direction;
+    }
+
+    /**
+     * @return The Direction whose getIndex() returns the given index.
+     */
+    public static Direction getDirection(int index) {
+        return DIRECTIONS[index];
+    }
+
+    /**
+     * @return All of the Directions, ordered by index.
+     */
+    public static Direction[] getDirections() {
+        return (Direction[])DIRECTIONS.clone();
+    }
+
     public static Direction getOppositeDirection(Direction dir) {
         Direction opposite = null;
         switch (dir.direction) {
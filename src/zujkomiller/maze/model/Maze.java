@@ -25,12 +25,16 @@ import java.io.Serializable;
 
 public class Maze implements Serializable {
 
+    // unchanged from earlier versions so that stored mazes stay readable
+    private static final long serialVersionUID = 6795868853475003212L;
+
     private GridLocation[][] locations;
     private int width = 0;
     private int height = 0;
     private GridLocation entryLocation = null;
     private GridLocation destination = null;
     private String name = "";
+    private transient CompiledMaze compiledMaze = null;
 
     public Maze(int width, int height) {
         this.width = width;
@@ -106,10 +110,23 @@ public class Maze implements Serializable {
 
     public void setEntryLocation(int x, int y) {
         this.entryLocation = locations[x][y];
+        this.compiledMaze = null;
     }
 
     public void setDestination(int x, int y) {
         this.destination = locations[x][y];
+        this.compiledMaze = null;
+    }
+
+    /**
+     * @return The CompiledMaze for this Maze, which is built the first
+     *  time it is asked for and rebuilt only if the Maze changes.
+     */
+    public synchronized CompiledMaze getCompiledMaze() {
+        if (this.compiledMaze == null) {
+            this.compiledMaze = new CompiledMaze(this);
+        }
+        return this.compiledMaze;
     }
 
     public Location getEntryLocation() {
@@ -145,6 +162,7 @@ public class Maze implements Serializable {
                     Direction.getOppositeDirection(direction));
             }
         }
+        this.compiledMaze = null;
     }
 
 
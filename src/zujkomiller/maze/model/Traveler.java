@@ -23,16 +23,68 @@ package zujkomiller.maze.model;
 
 import java.util.*;
 
+/**
+ * A Traveler walks through a maze, counting the number of times it
+ * moves and the number of times it runs into a wall.  A Traveler
+ * created with a CompiledMaze walks by cell index, which is much
+ * cheaper than walking from Location to Location; use that form
+ * wherever a maze is walked many times, as in fitness testing.
+ */
 public class Traveler {
     private Location currentLocation;
     private int numTimesHitWall = 0;
     private int numTimesMoved = 0;
 
+    // only used when walking a CompiledMaze
+    private CompiledMaze compiledMaze = null;
+    private int[] transitions = null;
+    private int currentCell = CompiledMaze.WALL;
+
     public Traveler(Location entryLocation) {
         this.currentLocation = entryLocation;
     }
 
+    /**
+     * Creates a Traveler which walks the CompiledMaze by cell index,
+     * starting at the maze's entry cell.
+     */
+    public Traveler(CompiledMaze maze) {
+        this.compiledMaze = maze;
+        this.transitions = maze.getTransitions();
+        this.currentCell = maze.getEntryCell();
+    }
+
+    /**
+     * Puts this Traveler back at the given location and clears
+     * its counts, so that the same Traveler can be used for
+     * another walk through the maze.
+     */
+    public void reset(Location entryLocation) {
+        if (this.compiledMaze != null) {
+            this.currentCell = this.compiledMaze.getCellIndex
+                (entryLocation.getXCoord(), entryLocation.getYCoord());
+        } else {
+            this.currentLocation = entryLocation;
+        }
+        this.numTimesHitWall = 0;
+        this.numTimesMoved = 0;
+    }
+
+    /**
+     * Puts a Traveler created with a CompiledMaze back at the maze's
+     * entry cell and clears its counts.
+     */
+    public void reset() {
+        this.currentCell = this.compiledMaze.getEntryCell();
+        this.numTimesHitWall = 0;
+        this.numTimesMoved = 0;
+    }
+
     public void travel (Direction direction) {
+        if (this.compiledMaze != null) {
+            travel(direction.getIndex());
+            return;
+        }
         MazeElement nextLocation =
             currentLocation.getAdjacentElement(direction);
         if (nextLocation instanceof Wall) {
@@ -43,6 +95,22 @@ public class Traveler {
         }
     }
 
+    /**
+     * Moves in the direction with the given index (see
+     * Direction.getIndex()).  Only a Traveler created with a
+     * CompiledMaze can travel by direction index.
+     */
+    public void travel(int direction) {
+        int next = this.transitions[(this.currentCell * Direction.COUNT)
+            + direction];
+        if (next == CompiledMaze.WALL) {
+            numTimesHitWall++;
+        } else {
+            this.currentCell = next;
+            numTimesMoved++;
+        }
+    }
+
     public int getNumOfTimesHitWall() {
         return this.numTimesHitWall;
     }
@@ -52,7 +120,19 @@ public class Traveler {
     }
 
     public Location getCurrentLocation() {
-        return this.currentLocation;
+        Location location = this.currentLocation;
+        if (this.compiledMaze != null) {
+            location = this.compiledMaze.getLocation(this.currentCell);
+        }
+        return location;
+    }
+
+    /**
+     * @return The cell index of the current location, for a Traveler
+     *  created with a CompiledMaze.
+     */
+    public int getCurrentCell() {
+        return this.currentCell;
     }
 
-}
\ No newline at end of file
+}
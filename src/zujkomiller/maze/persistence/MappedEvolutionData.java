@@ -0,0 +1,461 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.maze.persistence;
+
+import zujkomiller.maze.results.*;
+import zujkomiller.maze.model.Maze;
+import zujkomiller.genetic.*;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * A MappedEvolutionData reads a finished results file in the
+ * ResultsFormat lazily instead of all at once.  Opening it reads only
+ * the maze, the properties and the trailer, whose index gives every
+ * generation and its cohorts straight away.  The generations are
+ * memory-mapped, each one only when it is first needed, and an
+ * individual's genes are only decoded when its Chromosome is asked
+ * for, so even a file larger than memory opens at once.
+ * <p>
+ * The score data is made of Cohorts whose Individuals are only created
+ * when getIndividuals is first called, and those Individuals decode
+ * their Chromosomes when getChromosome is first called.
+ * getGenerations decodes every generation the first time it is called.
+ * The file stays open until close is called.
+ */
+public class MappedEvolutionData extends MazeEvolutionData {
+
+    private final File file;
+    private final RandomAccessFile fileIn;
+    private final FileChannel channel;
+    private final int bitsPerGene;
+
+    // from the index: where each generation's block of individuals
+    // starts and ends in the file, and its number
+    private final long[] blockStarts;
+    private final long[] blockEnds;
+    private final int[] generationNumbers;
+
+    // each generation's block, once mapped, and where the genes of each
+    // of its individuals start within the block, once worked out
+    private final ByteBuffer[] blocks;
+    private final int[][] geneStarts;
+
+    private MappedEvolutionData(File file, RandomAccessFile fileIn,
+            Maze maze, Properties properties, int bitsPerGene,
+            int numOfGenerations) {
+        super(maze, properties, 0);
+        this.file = file;
+        this.fileIn = fileIn;
+        this.channel = fileIn.getChannel();
+        this.bitsPerGene = bitsPerGene;
+        this.blockStarts = new long[numOfGenerations];
+        this.blockEnds = new long[numOfGenerations];
+        this.generationNumbers = new int[numOfGenerations];
+        this.blocks = new ByteBuffer[numOfGenerations];
+        this.geneStarts = new int[numOfGenerations][];
+    }
+
+    /**
+     * Opens a results file for reading on demand.
+     *
+     * @return The results, or null if the file is not in the
+     *  ResultsFormat, or was never closed and so has no index.
+     */
+    public static MappedEvolutionData open(File file) throws IOException {
+        MappedEvolutionData data = null;
+        DataInputStream head = new DataInputStream(new BufferedInputStream
+            (new FileInputStream(file)));
+        try {
+            if (file.length() >= ResultsFormat.TRAILER_OFFSET_POSITION + 8 &&
+                    head.readInt() == ResultsFormat.MAGIC) {
+                int version = head.readInt();
+                int bitsPerGene = head.readInt();
+                ResultsFormat.checkHeader(version, bitsPerGene);
+                long trailerOffset = head.readLong();
+                if (trailerOffset > 0) {
+                    Maze maze = ResultsFormat.readMaze(head);
+                    Properties properties = ResultsFormat.readProperties(head);
+                    data = open(file, maze, properties, version, bitsPerGene,
+                        trailerOffset);
+                }
+            }
+        } finally {
+            head.close();
+        }
+        return data;
+    }
+
+    private static MappedEvolutionData open(File file, Maze maze,
+            Properties properties, int version, int bitsPerGene,
+            long trailerOffset) throws IOException {
+        RandomAccessFile fileIn = new RandomAccessFile(file, "r");
+        MappedEvolutionData data = null;
+        try {
+            FileChannel channel = fileIn.getChannel();
+            ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY,
+                trailerOffset, channel.size() - trailerOffset);
+            if (trailer.get() != ResultsFormat.TRAILER_TAG) {
+                throw new IOException("The trailer of " + file +
+                    " is missing.");
+            }
+            int finalTopScore = trailer.getInt();
+            int topScorersStart = trailer.position();
+            trailer.position(topScorersStart +
+                getBlockLength(trailer, topScorersStart, bitsPerGene));
+            int numOfGenerations = trailer.getInt();
+
+            data = new MappedEvolutionData(file, fileIn, maze, properties,
+                bitsPerGene, numOfGenerations);
+            data.setFinalTopScore(finalTopScore);
+            data.setTopScorers(data.decode(trailer, topScorersStart, 0,
+                trailer.getInt(topScorersStart), null).getChromosomes());
+            data.readIndex(trailer, version, trailerOffset);
+        } finally {
+            if (data == null) {
+                fileIn.close();
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Reads the index at the trailer's position, building the score
+     * data from it.  Files from version 1 of the format have no cohorts
+     * in their index, so those are found from each generation's scores.
+     */
+    private void readIndex(ByteBuffer trailer, int version,
+            long trailerOffset) throws IOException {
+        int count = this.generationNumbers.length;
+        this.scoreData = new GenerationScoreData[count];
+        for (int n=0; n<count; n++) {
+            this.generationNumbers[n] = trailer.getInt();
+            trailer.getInt(); // the top score
+            int size = trailer.getInt();
+            // the block starts after the tag and the generation number
+            this.blockStarts[n] = trailer.getLong() + 5;
+            if (n > 0) {
+                this.blockEnds[n - 1] = this.blockStarts[n] - 5;
+            }
+            this.blockEnds[n] = trailerOffset;
+
+            int[] cohortScores = null;
+            int[] cohortSizes = null;
+            if (version >= 2) {
+                int numOfCohorts = trailer.getInt();
+                cohortScores = new int[numOfCohorts];
+                cohortSizes = new int[numOfCohorts];
+                for (int c=0; c<numOfCohorts; c++) {
+                    cohortScores[c] = trailer.getInt();
+                    cohortSizes[c] = trailer.getInt();
+                }
+            }
+            this.scoreData[n] = new GenerationScoreData
+                (this.generationNumbers[n], (cohortScores != null)
+                    ? getCohorts(n, cohortScores, cohortSizes)
+                    : findCohorts(n, size));
+        }
+        if (count > 0) {
+            Arrays.sort(this.scoreData, this.scoreData[0]);
+        }
+    }
+
+    /**
+     * @return The Cohorts of generation n, from the lowest score up,
+     *  as MazeEvolutionData orders them, given the score and size of
+     *  each from the highest score down, as its individuals are stored.
+     */
+    private Cohort[] getCohorts(int n, int[] scores, int[] sizes) {
+        Cohort[] cohorts = new Cohort[scores.length];
+        int first = 0;
+        for (int c=0; c<scores.length; c++) {
+            cohorts[scores.length - 1 - c] =
+                new MappedCohort(this, n, scores[c], first, sizes[c]);
+            first += sizes[c];
+        }
+        return cohorts;
+    }
+
+    /**
+     * @return The Cohorts of generation n, found from runs of the same
+     *  score among its individuals.
+     */
+    private Cohort[] findCohorts(int n, int size) throws IOException {
+        ByteBuffer block = getBlock(n);
+        int[] scores = new int[size];
+        int[] sizes = new int[size];
+        int count = 0;
+        for (int i=0; i<size; i++) {
+            int score = block.getInt(4 + (4 * i));
+            if (count == 0 || scores[count - 1] != score) {
+                scores[count] = score;
+                count++;
+            }
+            sizes[count - 1]++;
+        }
+        int[] cohortScores = new int[count];
+        int[] cohortSizes = new int[count];
+        System.arraycopy(scores, 0, cohortScores, 0, count);
+        System.arraycopy(sizes, 0, cohortSizes, 0, count);
+        return getCohorts(n, cohortScores, cohortSizes);
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * The score data comes from the index, so there is nothing to build.
+     */
+    public void buildScoreData() {
+    }
+
+    /**
+     * @return Every Generation in the file, decoding all of them the
+     *  first time this is called.
+     */
+    public synchronized Generation[] getGenerations() {
+        if (this.generations == null) {
+            try {
+                Generation[] gens = new Generation[this.blocks.length];
+                for (int n=0; n<gens.length; n++) {
+                    ByteBuffer block = getBlock(n);
+                    gens[n] = new Generation(decode(block, 0, 0,
+                        block.getInt(0), this.geneStarts[n]),
+                        this.generationNumbers[n]);
+                }
+                this.generations = gens;
+            } catch (IOException ioe) {
+                throw new IllegalStateException("The generations of " +
+                    this.file + " could not be read: " + ioe);
+            }
+        }
+        return this.generations;
+    }
+
+    /**
+     * @return A Chromosome holding the genes and score of the individual
+     *  at the given place, counting from the highest score, in
+     *  generation n.
+     */
+    protected synchronized Chromosome getChromosome(int n, int place)
+            throws IOException {
+        ByteBuffer block = getBlock(n);
+        return decode(block, 0, place, 1, this.geneStarts[n]).
+            getChromosome(0);
+    }
+
+    /**
+     * Closes the file.  Individuals of generations which have not yet
+     * been mapped into memory can no longer be read.
+     */
+    public synchronized void close() throws IOException {
+        this.fileIn.close();
+    }
+
+    /**
+     * @return The block of individuals of generation n, mapped into
+     *  memory the first time it is asked for.
+     */
+    private synchronized ByteBuffer getBlock(int n) throws IOException {
+        if (this.blocks[n] == null) {
+            this.blocks[n] = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                this.blockStarts[n], this.blockEnds[n] - this.blockStarts[n]);
+            this.geneStarts[n] = getGeneStarts(this.blocks[n], 0,
+                this.bitsPerGene);
+        }
+        return this.blocks[n];
+    }
+
+    /**
+     * Decodes count individuals, starting with the one at place first,
+     * of the block of individuals at position start of the buffer.
+     *
+     * @param geneStarts Where the genes of each individual start, or
+     *  null to work them out.
+     */
+    private Population decode(ByteBuffer buffer, int start, int first,
+            int count, int[] geneStarts) {
+        if (geneStarts == null) {
+            geneStarts = getGeneStarts(buffer, start, this.bitsPerGene);
+        }
+        int size = buffer.getInt(start);
+        int scoresAt = start + 4;
+        int lengthsAt = scoresAt + (4 * size);
+        int maxLength = 0;
+        for (int i=first; i<first + count; i++) {
+            maxLength = Math.max(maxLength, buffer.getInt(lengthsAt + (4 * i)));
+        }
+        Population population = new Population(count, maxLength,
+            this.bitsPerGene);
+        short[] genes = new short[maxLength];
+        for (int i=0; i<count; i++) {
+            int length = buffer.getInt(lengthsAt + (4 * (first + i)));
+            decodeGenes(buffer, start + geneStarts[first + i], genes, length);
+            population.setGenes(i, genes, length);
+            population.setScore(i, buffer.getInt(scoresAt + (4 * (first + i))));
+        }
+        return population;
+    }
+
+    private void decodeGenes(ByteBuffer buffer, int at, short[] genes,
+            int length) {
+        if (this.bitsPerGene == 0) {
+            for (int g=0; g<length; g++) {
+                genes[g] = buffer.getShort(at + (2 * g));
+            }
+        } else {
+            int genesPerByte = 8 / this.bitsPerGene;
+            int mask = (1 << this.bitsPerGene) - 1;
+            for (int g=0; g<length; g++) {
+                int packed = buffer.get(at + (g / genesPerByte)) & 0xFF;
+                genes[g] = (short)((packed >>>
+                    ((g % genesPerByte) * this.bitsPerGene)) & mask);
+            }
+        }
+    }
+
+    /**
+     * @return Where the genes of each individual of the block at
+     *  position start of the buffer start, relative to the block.
+     */
+    private static int[] getGeneStarts(ByteBuffer buffer, int start,
+            int bitsPerGene) {
+        int size = buffer.getInt(start);
+        int lengthsAt = start + 4 + (4 * size);
+        int[] starts = new int[size];
+        int next = 4 + (8 * size);
+        for (int i=0; i<size; i++) {
+            starts[i] = next;
+            next += getNumOfBytes(buffer.getInt(lengthsAt + (4 * i)),
+                bitsPerGene);
+        }
+        return starts;
+    }
+
+    /**
+     * @return The number of bytes taken by the block of individuals at
+     *  position start of the buffer.
+     */
+    private static int getBlockLength(ByteBuffer buffer, int start,
+            int bitsPerGene) {
+        int size = buffer.getInt(start);
+        int length = 4 + (8 * size);
+        if (size > 0) {
+            int[] starts = getGeneStarts(buffer, start, bitsPerGene);
+            int lastLength = buffer.getInt(start + 4 + (4 * size) +
+                (4 * (size - 1)));
+            length = starts[size - 1] + getNumOfBytes(lastLength, bitsPerGene);
+        }
+        return length;
+    }
+
+    private static int getNumOfBytes(int numOfGenes, int bitsPerGene) {
+        int bytes = 2 * numOfGenes;
+        if (bitsPerGene > 0) {
+            int genesPerByte = 8 / bitsPerGene;
+            bytes = (numOfGenes + genesPerByte - 1) / genesPerByte;
+        }
+        return bytes;
+    }
+
+    /**
+     * A Cohort which creates its Individuals the first time they are
+     * asked for.  Its individuals are those at places first to
+     * first + size - 1 of its generation.
+     */
+    private static class MappedCohort extends Cohort {
+        private final MappedEvolutionData data;
+        private final int generation;
+        private final int first;
+        private final int size;
+        private Individual[] mappedIndividuals = null;
+
+        MappedCohort(MappedEvolutionData data, int generation, int score,
+                int first, int size) {
+            super(score, data.generationNumbers[generation], null);
+            this.data = data;
+            this.generation = generation;
+            this.first = first;
+            this.size = size;
+        }
+
+        /**
+         * A MappedCohort is only equal to itself, as it has no array of
+         * Individuals to compare until they are asked for.
+         */
+        public boolean equals(Object obj) {
+            return obj == this;
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        public synchronized Individual[] getIndividuals() {
+            if (this.mappedIndividuals == null) {
+                this.mappedIndividuals = new Individual[this.size];
+                for (int n=0; n<this.size; n++) {
+                    this.mappedIndividuals[n] = new MappedIndividual
+                        (this.data, this.generation, this.first + n);
+                    this.mappedIndividuals[n].setName("solution " + (n+1));
+                }
+            }
+            return this.mappedIndividuals;
+        }
+    }
+
+    /**
+     * An Individual which decodes its Chromosome the first time it is
+     * asked for.
+     */
+    private static class MappedIndividual extends Individual {
+        private final MappedEvolutionData data;
+        private final int generation;
+        private final int place;
+        private Chromosome chromosome = null;
+
+        MappedIndividual(MappedEvolutionData data, int generation,
+                int place) {
+            super(data.generationNumbers[generation], null);
+            this.data = data;
+            this.generation = generation;
+            this.place = place;
+        }
+
+        public synchronized Chromosome getChromosome() {
+            if (this.chromosome == null) {
+                try {
+                    this.chromosome =
+                        this.data.getChromosome(this.generation, this.place);
+                } catch (IOException ioe) {
+                    throw new IllegalStateException("The individual could " +
+                        "not be read from " + this.data.file + ": " + ioe);
+                }
+            }
+            return this.chromosome;
+        }
+    }
+
+}
@@ -133,43 +133,60 @@ public abstract class MazeAccessor {
         return names;
     }
 
+    /**
+     * Stores the results in the binary ResultsFormat, in a file named
+     * after the maze and the current time.
+     */
     public static void store(MazeEvolutionData data) throws IOException {
-        FileOutputStream fileOut = null;
-        ObjectOutputStream objOut = null;
-        try {
-            DateFormat formatter = DateFormat.
-                getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM);
-            String time = formatter.format(new Date());
-            time = time.replace(' ', '_');
-            time = time.replace('/', '_');
-            time = time.replace(':', '_');
-            String name = data.getMaze().getName() + "_" + time;
-            fileOut = new FileOutputStream(directory + name + RESULT_FILE_EXT);
-            objOut = new ObjectOutputStream(fileOut);
-            objOut.writeObject(data);
-            objOut.flush();
-        } finally {
-            if (objOut != null) {
-                objOut.close();
-            }
-            if (fileOut != null) {
-                fileOut.close();
-            }
-        }
+        ResultsFormat.write(data, getResultsFile(data.getMaze()));
+    }
+
+    /**
+     * @return A ResultsWriter which streams results to a new file named
+     *  after the maze and the current time, as store(MazeEvolutionData)
+     *  would name it (see ResultsWriter for the parameters).
+     */
+    public static ResultsWriter openResults(Maze maze, Properties properties,
+            int bitsPerGene, int syncInterval) throws IOException {
+        return new ResultsWriter(getResultsFile(maze), maze, properties,
+            bitsPerGene, syncInterval);
+    }
+
+    private static File getResultsFile(Maze maze) {
+        DateFormat formatter = DateFormat.
+            getDateTimeInstance(DateFormat.MEDIUM, DateFormat.MEDIUM);
+        String time = formatter.format(new Date());
+        time = time.replace(' ', '_');
+        time = time.replace('/', '_');
+        time = time.replace(':', '_');
+        String name = maze.getName() + "_" + time;
+        return new File(directory + name + RESULT_FILE_EXT);
     }
 
     public static MazeEvolutionData loadResults(String name) {
         return loadResults(new File(name));
     }
     
+    /**
+     * Loads results stored in the binary ResultsFormat, or serialized
+     * by earlier versions, telling them apart by their first four bytes.
+     */
     public static MazeEvolutionData loadResults(File resultsFile) {
         MazeEvolutionData data = null;
-        FileInputStream fileIn = null;
+        DataInputStream dataIn = null;
         ObjectInputStream objIn = null;
         try {
-            fileIn = new FileInputStream(resultsFile);
-            objIn = new ObjectInputStream(fileIn);
-            data = (MazeEvolutionData)objIn.readObject();
+            dataIn = new DataInputStream(new BufferedInputStream
+                (new FileInputStream(resultsFile)));
+            dataIn.mark(4);
+            int magic = dataIn.readInt();
+            dataIn.reset();
+            if (magic == ResultsFormat.MAGIC) {
+                data = ResultsFormat.read(dataIn);
+            } else {
+                objIn = new ObjectInputStream(dataIn);
+                data = (MazeEvolutionData)objIn.readObject();
+            }
         } catch (IOException ioe) {
             ioe.printStackTrace();
             // do nothing - will return a null Maze
@@ -184,8 +201,8 @@ public abstract class MazeAccessor {
                 if (objIn != null) {
                     objIn.close();
                 }
-                if (fileIn != null) {
-                    fileIn.close();
+                if (dataIn != null) {
+                    dataIn.close();
                 }
             } catch (IOException ioe) {
                 // do nothing
@@ -194,6 +211,25 @@ public abstract class MazeAccessor {
         return data;
     }
     
+    /**
+     * Opens results for browsing, reading a finished file in the binary
+     * ResultsFormat on demand as a MappedEvolutionData, and loading
+     * anything else whole as loadResults does.
+     */
+    public static MazeEvolutionData mapResults(File resultsFile) {
+        MazeEvolutionData data = null;
+        try {
+            data = MappedEvolutionData.open(resultsFile);
+        } catch (IOException ioe) {
+            ioe.printStackTrace();
+            // fall back on reading the whole file
+        }
+        if (data == null) {
+            data = loadResults(resultsFile);
+        }
+        return data;
+    }
+    
     public static File[] getResultsFileNames() {
         File[] files = new File[0];
         try {
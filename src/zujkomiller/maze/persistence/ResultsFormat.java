@@ -0,0 +1,412 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.maze.persistence;
+
+import zujkomiller.maze.results.MazeEvolutionData;
+import zujkomiller.maze.model.*;
+import zujkomiller.genetic.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * ResultsFormat writes MazeEvolutionData as a compact binary file,
+ * and reads it back, instead of serializing the whole object graph.
+ * Only what cannot be worked out again is stored: the Maze as its size,
+ * entry, destination and walls; the properties; and the genes and
+ * scores of the individuals, a column at a time.  The Cohorts and
+ * Individuals are rebuilt from the Generations when the file is read.
+ * The generations come before the trailer, so that a ResultsWriter can
+ * append them one at a time as a run goes on.
+ * <p>
+ * All numbers are big-endian, as DataOutputStream writes them.  A file
+ * is laid out as:
+ * <pre>
+ *   header:      int MAGIC, int VERSION, int bitsPerGene,
+ *                long offset of the trailer (0 until it is written)
+ *   maze:        UTF name, int width, int height, int entryX,
+ *                int entryY, int destinationX, int destinationY
+ *                (-1 when not set), then one byte of walls per cell,
+ *                column by column (1 = wall to the east, 2 = south)
+ *   properties:  int count (-1 for none), then UTF key, UTF value
+ *   generations: for each, byte GENERATION_TAG, int generation
+ *                number, then a block of individuals
+ *   trailer:     byte TRAILER_TAG, int final top score, a block of the
+ *                top scorers, int count of generations, then for each
+ *                its number, top score, size and long offset, which
+ *                is where its GENERATION_TAG is, followed (from
+ *                version 2) by int count of cohorts and the score and
+ *                size of each, from the highest score
+ * </pre>
+ * A block of individuals is an int count, that many int scores, that
+ * many int lengths, and then the genes of each individual in turn.
+ * When bitsPerGene is 2, 4 or 8, the genes of an individual are packed
+ * into as many bytes as they need, the first gene in the lowest bits of
+ * the first byte; when it is zero, each gene is a short.  Within each
+ * generation, the individuals are in order from the highest score.
+ */
+public abstract class ResultsFormat {
+
+    /** The first four bytes of every file in this format: "MZRS". */
+    public static final int MAGIC = 0x4D5A5253;
+
+    /** The version of the format written, and the latest one read. */
+    public static final int VERSION = 2;
+
+    /** Where in the header the offset of the trailer is kept. */
+    static final int TRAILER_OFFSET_POSITION = 12;
+
+    static final byte GENERATION_TAG = 1;
+    static final byte TRAILER_TAG = 2;
+
+    private static final int EAST_WALL = 1;
+    private static final int SOUTH_WALL = 2;
+
+    /**
+     * Writes the results, whose score data must already have been
+     * built, to the given file all at once.
+     */
+    public static void write(MazeEvolutionData data, File file)
+            throws IOException {
+        Generation[] generations = data.getGenerations();
+        if (generations == null) {
+            generations = new Generation[0];
+        }
+        Chromosome[] topScorers = data.getTopScorers();
+        if (topScorers == null) {
+            topScorers = new Chromosome[0];
+        }
+        int bitsPerGene = getBitsPerGene(generations, topScorers);
+        ResultsWriter writer = new ResultsWriter(file, data.getMaze(),
+            data.getProperties(), bitsPerGene, 0);
+        try {
+            for (int n=0; n<generations.length; n++) {
+                writer.append(generations[n]);
+            }
+            writer.close(data.getFinalTopScore(), topScorers);
+        } finally {
+            writer.abandon();
+        }
+    }
+
+    /**
+     * Reads results written by write(MazeEvolutionData, File) or by a
+     * ResultsWriter from the start of the stream, and builds their
+     * score data.  If the file ends before the trailer, as when a run
+     * never finished, the generations which were written out in full
+     * are kept, with no top scorers and the highest score among them
+     * as the final top score.
+     */
+    public static MazeEvolutionData read(DataInputStream in)
+            throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("This is not a results file.");
+        }
+        int version = in.readInt();
+        int bitsPerGene = in.readInt();
+        checkHeader(version, bitsPerGene);
+        // the trailer is found by reading up to it, so its offset,
+        // which is there for random access, is skipped
+        in.readLong();
+        Maze maze = readMaze(in);
+        Properties properties = readProperties(in);
+
+        ArrayList generations = new ArrayList();
+        int finalTopScore = -1;
+        Chromosome[] topScorers = new Chromosome[0];
+        boolean finished = false;
+        try {
+            byte tag = in.readByte();
+            while (tag == GENERATION_TAG) {
+                int generationNumber = in.readInt();
+                Population population = readChromosomes(in, bitsPerGene);
+                Generation gen = new Generation(population, generationNumber);
+                generations.add(gen);
+                finalTopScore = Math.max(finalTopScore,
+                    gen.getTopScoreOfGeneration());
+                tag = in.readByte();
+            }
+            if (tag != TRAILER_TAG) {
+                throw new IOException("Unknown section " + tag +
+                    " in the results file.");
+            }
+            finished = true;
+        } catch (EOFException eof) {
+            // the run stopped before the results were closed, part way
+            // through a generation or between two of them
+        }
+        if (finished) {
+            finalTopScore = in.readInt();
+            topScorers = readChromosomes(in, bitsPerGene).getChromosomes();
+            // the generation index which follows is only for random access
+        }
+
+        MazeEvolutionData data = new MazeEvolutionData(maze, properties,
+            generations.size());
+        for (int n=0; n<generations.size(); n++) {
+            data.addGeneration((Generation)generations.get(n));
+        }
+        data.setFinalTopScore(finalTopScore);
+        data.setTopScorers(topScorers);
+        data.buildScoreData();
+        return data;
+    }
+
+    /**
+     * Throws an IOException unless a file with the given version and
+     * bits per gene can be read.
+     */
+    static void checkHeader(int version, int bitsPerGene) throws IOException {
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Version " + version + " of the " +
+                "results format can not be read.");
+        }
+        if (bitsPerGene != 0 && !GenePacking.isValidBitsPerGene(bitsPerGene)) {
+            throw new IOException("The results file has " + bitsPerGene +
+                " bits per gene.");
+        }
+    }
+
+    /**
+     * @return The fewest bits per gene which hold every gene of the
+     *  given Chromosomes, or zero if they need a short each.
+     */
+    private static int getBitsPerGene(Generation[] generations,
+            Chromosome[] topScorers) {
+        int largest = 0;
+        boolean negative = false;
+        for (int n=0; n<=generations.length; n++) {
+            Chromosome[] chroms = (n < generations.length)
+                ? generations[n].getIndividuals() : topScorers;
+            for (int c=0; c<chroms.length; c++) {
+                short[] genes = chroms[c].getGenes();
+                for (int g=0; g<genes.length; g++) {
+                    largest = Math.max(largest, genes[g]);
+                    negative = negative || genes[g] < 0;
+                }
+            }
+        }
+        int bits = 0;
+        if (!negative) {
+            bits = GenePacking.getBitsPerGene(largest + 1);
+        }
+        return bits;
+    }
+
+    /**
+     * Writes the header, with no trailer to point to yet.
+     */
+    static void writeHeader(DataOutputStream out, int bitsPerGene)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(bitsPerGene);
+        out.writeLong(0);
+    }
+
+    static void writeMaze(DataOutputStream out, Maze maze)
+            throws IOException {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        out.writeUTF(maze.getName() == null ? "" : maze.getName());
+        out.writeInt(width);
+        out.writeInt(height);
+        writeLocation(out, maze.getEntryLocation());
+        writeLocation(out, maze.getDestination());
+        Location[][] locations = maze.getLocations();
+        byte[] walls = new byte[width * height];
+        for (int x=0; x<width; x++) {
+            for (int y=0; y<height; y++) {
+                int cellWalls = 0;
+                if (x + 1 < width && !(locations[x][y].getAdjacentElement
+                        (Direction.EAST) instanceof Location)) {
+                    cellWalls = cellWalls | EAST_WALL;
+                }
+                if (y + 1 < height && !(locations[x][y].getAdjacentElement
+                        (Direction.SOUTH) instanceof Location)) {
+                    cellWalls = cellWalls | SOUTH_WALL;
+                }
+                walls[(x * height) + y] = (byte)cellWalls;
+            }
+        }
+        out.write(walls);
+    }
+
+    private static void writeLocation(DataOutputStream out,
+            Location location) throws IOException {
+        out.writeInt(location == null ? -1 : location.getXCoord());
+        out.writeInt(location == null ? -1 : location.getYCoord());
+    }
+
+    static Maze readMaze(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        int width = in.readInt();
+        int height = in.readInt();
+        int entryX = in.readInt();
+        int entryY = in.readInt();
+        int destinationX = in.readInt();
+        int destinationY = in.readInt();
+        byte[] walls = new byte[width * height];
+        in.readFully(walls);
+
+        Maze maze = new Maze(width, height);
+        maze.setName(name);
+        if (entryX >= 0) {
+            maze.setEntryLocation(entryX, entryY);
+        }
+        if (destinationX >= 0) {
+            maze.setDestination(destinationX, destinationY);
+        }
+        for (int x=0; x<width; x++) {
+            for (int y=0; y<height; y++) {
+                int cellWalls = walls[(x * height) + y];
+                if ((cellWalls & EAST_WALL) != 0) {
+                    maze.addWall(x, y, Direction.EAST);
+                }
+                if ((cellWalls & SOUTH_WALL) != 0) {
+                    maze.addWall(x, y, Direction.SOUTH);
+                }
+            }
+        }
+        return maze;
+    }
+
+    static void writeProperties(DataOutputStream out,
+            Properties properties) throws IOException {
+        if (properties == null) {
+            out.writeInt(-1);
+        } else {
+            ArrayList keys = new ArrayList();
+            Enumeration names = properties.propertyNames();
+            while (names.hasMoreElements()) {
+                keys.add(names.nextElement());
+            }
+            out.writeInt(keys.size());
+            for (int n=0; n<keys.size(); n++) {
+                String key = (String)keys.get(n);
+                out.writeUTF(key);
+                out.writeUTF(properties.getProperty(key));
+            }
+        }
+    }
+
+    static Properties readProperties(DataInputStream in)
+            throws IOException {
+        Properties properties = null;
+        int count = in.readInt();
+        if (count >= 0) {
+            properties = new Properties();
+            for (int n=0; n<count; n++) {
+                String key = in.readUTF();
+                properties.setProperty(key, in.readUTF());
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Writes a block of individuals: the scores, then the lengths, then
+     * the genes.
+     */
+    static void writeChromosomes(DataOutputStream out, Chromosome[] chroms,
+            int bitsPerGene) throws IOException {
+        out.writeInt(chroms.length);
+        for (int c=0; c<chroms.length; c++) {
+            out.writeInt(chroms[c].getFitnessScore());
+        }
+        for (int c=0; c<chroms.length; c++) {
+            out.writeInt(chroms[c].getSize());
+        }
+        for (int c=0; c<chroms.length; c++) {
+            writeGenes(out, chroms[c].getGenes(), bitsPerGene);
+        }
+    }
+
+    /**
+     * Reads a block of individuals into a new Population which packs
+     * its genes the same way.
+     */
+    static Population readChromosomes(DataInputStream in, int bitsPerGene)
+            throws IOException {
+        int size = in.readInt();
+        int[] scores = new int[size];
+        for (int c=0; c<size; c++) {
+            scores[c] = in.readInt();
+        }
+        int[] lengths = new int[size];
+        int maxLength = 0;
+        for (int c=0; c<size; c++) {
+            lengths[c] = in.readInt();
+            maxLength = Math.max(maxLength, lengths[c]);
+        }
+        Population population = new Population(size, maxLength, bitsPerGene);
+        short[] genes = new short[maxLength];
+        for (int c=0; c<size; c++) {
+            readGenes(in, genes, lengths[c], bitsPerGene);
+            population.setGenes(c, genes, lengths[c]);
+            population.setScore(c, scores[c]);
+        }
+        return population;
+    }
+
+    private static void writeGenes(DataOutputStream out, short[] genes,
+            int bitsPerGene) throws IOException {
+        if (bitsPerGene == 0) {
+            for (int g=0; g<genes.length; g++) {
+                out.writeShort(genes[g]);
+            }
+        } else {
+            int genesPerByte = 8 / bitsPerGene;
+            for (int g=0; g<genes.length; g+=genesPerByte) {
+                int packed = 0;
+                for (int k=0; k<genesPerByte && g + k<genes.length; k++) {
+                    if (genes[g + k] < 0 || genes[g + k] >= 1 << bitsPerGene) {
+                        throw new IllegalArgumentException("The gene value " +
+                            genes[g + k] + " does not fit into " +
+                            bitsPerGene + " bits.");
+                    }
+                    packed = packed | (genes[g + k] << (k * bitsPerGene));
+                }
+                out.writeByte(packed);
+            }
+        }
+    }
+
+    private static void readGenes(DataInputStream in, short[] genes,
+            int length, int bitsPerGene) throws IOException {
+        if (bitsPerGene == 0) {
+            for (int g=0; g<length; g++) {
+                genes[g] = in.readShort();
+            }
+        } else {
+            int genesPerByte = 8 / bitsPerGene;
+            int mask = (1 << bitsPerGene) - 1;
+            for (int g=0; g<length; g+=genesPerByte) {
+                int packed = in.readUnsignedByte();
+                for (int k=0; k<genesPerByte && g + k<length; k++) {
+                    genes[g + k] =
+                        (short)((packed >>> (k * bitsPerGene)) & mask);
+                }
+            }
+        }
+    }
+
+}
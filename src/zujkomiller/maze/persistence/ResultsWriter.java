@@ -0,0 +1,276 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.maze.persistence;
+
+import zujkomiller.maze.model.Maze;
+import zujkomiller.genetic.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * A ResultsWriter streams the results of a run to a file in the
+ * ResultsFormat while the run goes on.  Each Generation is written out
+ * as soon as it is appended, so it need not be kept in memory, and it
+ * can be read back even if the run never finishes.  Every syncInterval
+ * generations, the file is forced to the disk, so that a crash loses at
+ * most that many generations.
+ * <p>
+ * Closing the writer adds the trailer, with the final top score, the
+ * top scorers and the index of the generations and their cohorts, and
+ * then points the header at it.  A file which was never closed has no
+ * trailer, but ResultsFormat.read still reads every generation which
+ * was written out in full.
+ */
+public class ResultsWriter {
+
+    private final File file;
+    private final int bitsPerGene;
+    private final int syncInterval;
+    private final FileOutputStream fileOut;
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private int numSinceSync = 0;
+    private boolean closed = false;
+
+    // what the index in the trailer needs to know about each generation
+    private final ArrayList index = new ArrayList();
+
+    /**
+     * Creates the file, writing the header, the maze and the
+     * properties, and forces them to the disk.
+     *
+     * @param bitsPerGene The number of bits in which each gene is
+     *  packed (2, 4 or 8), or zero to write each gene as a short.
+     * @param syncInterval The number of generations appended between
+     *  each time the file is forced to the disk, or zero to force it
+     *  only when it is closed.
+     */
+    public ResultsWriter(File file, Maze maze, Properties properties,
+            int bitsPerGene, int syncInterval) throws IOException {
+        if (bitsPerGene != 0 && !GenePacking.isValidBitsPerGene(bitsPerGene)) {
+            throw new IllegalArgumentException("Genes can only be packed " +
+                "with 2, 4 or 8 bits per gene.");
+        }
+        if (syncInterval < 0) {
+            throw new IllegalArgumentException("The sync interval can not " +
+                "be negative.");
+        }
+        this.file = file;
+        this.bitsPerGene = bitsPerGene;
+        this.syncInterval = syncInterval;
+        this.fileOut = new FileOutputStream(file);
+        this.counter = new CountingOutputStream
+            (new BufferedOutputStream(this.fileOut));
+        this.out = new DataOutputStream(this.counter);
+        try {
+            ResultsFormat.writeHeader(this.out, bitsPerGene);
+            ResultsFormat.writeMaze(this.out, maze);
+            ResultsFormat.writeProperties(this.out, properties);
+            sync();
+        } catch (IOException ioe) {
+            this.fileOut.close();
+            throw ioe;
+        }
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return The number of generations appended so far.
+     */
+    public synchronized int getNumOfGenerations() {
+        return this.index.size();
+    }
+
+    /**
+     * Writes out the individuals of the Generation, in order from the
+     * highest score, and forces the file to the disk if syncInterval
+     * generations have been appended since it last was.  The
+     * Generation is not kept, so it may be reused once this returns.
+     */
+    public synchronized void append(Generation gen) throws IOException {
+        checkOpen();
+        Chromosome[] individuals = gen.getIndividuals();
+        IndexEntry entry = new IndexEntry(gen.getGenerationNumber(),
+            gen.getTopScoreOfGeneration(), individuals.length,
+            this.counter.getCount());
+        this.out.writeByte(ResultsFormat.GENERATION_TAG);
+        this.out.writeInt(entry.generationNumber);
+        ResultsFormat.writeChromosomes(this.out, individuals,
+            this.bitsPerGene);
+        entry.setCohorts(individuals);
+        this.index.add(entry);
+
+        this.numSinceSync++;
+        if (this.syncInterval > 0 && this.numSinceSync >= this.syncInterval) {
+            sync();
+        }
+    }
+
+    /**
+     * Flushes everything appended so far and forces it to the disk.
+     */
+    public synchronized void sync() throws IOException {
+        checkOpen();
+        this.out.flush();
+        this.fileOut.getFD().sync();
+        this.numSinceSync = 0;
+    }
+
+    /**
+     * Writes the trailer, points the header at it, forces the file to
+     * the disk and closes it.
+     */
+    public synchronized void close(int finalTopScore, Chromosome[] topScorers)
+            throws IOException {
+        checkOpen();
+        try {
+            long trailerOffset = this.counter.getCount();
+            this.out.writeByte(ResultsFormat.TRAILER_TAG);
+            this.out.writeInt(finalTopScore);
+            ResultsFormat.writeChromosomes(this.out, (topScorers == null)
+                ? new Chromosome[0] : topScorers, this.bitsPerGene);
+            this.out.writeInt(this.index.size());
+            for (int n=0; n<this.index.size(); n++) {
+                ((IndexEntry)this.index.get(n)).write(this.out);
+            }
+            this.out.flush();
+
+            ByteBuffer offset = ByteBuffer.allocate(8);
+            offset.putLong(trailerOffset);
+            offset.flip();
+            this.fileOut.getChannel().write(offset,
+                ResultsFormat.TRAILER_OFFSET_POSITION);
+            this.fileOut.getFD().sync();
+        } finally {
+            this.closed = true;
+            this.out.close();
+        }
+    }
+
+    /**
+     * Closes the file without writing the trailer, as after a failure.
+     * The generations written out so far can still be read.
+     */
+    public synchronized void abandon() {
+        if (!this.closed) {
+            this.closed = true;
+            try {
+                this.out.close();
+            } catch (IOException ioe) {
+                // do nothing, the file is being given up on
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("The results file " +
+                this.file + " has already been closed.");
+        }
+    }
+
+    /**
+     * A generation's entry in the index: its number, top score, size and
+     * offset, and the score and size of each of its cohorts.
+     */
+    private static class IndexEntry {
+        private final int generationNumber;
+        private final int topScore;
+        private final int size;
+        private final long offset;
+        private int[] cohortScores = new int[0];
+        private int[] cohortSizes = new int[0];
+
+        IndexEntry(int generationNumber, int topScore, int size,
+                long offset) {
+            this.generationNumber = generationNumber;
+            this.topScore = topScore;
+            this.size = size;
+            this.offset = offset;
+        }
+
+        /**
+         * Finds the cohorts of individuals which are in order from the
+         * highest score, where each cohort is a run of the same score.
+         */
+        void setCohorts(Chromosome[] individuals) {
+            int[] scores = new int[individuals.length];
+            int[] sizes = new int[individuals.length];
+            int count = 0;
+            for (int c=0; c<individuals.length; c++) {
+                int score = individuals[c].getFitnessScore();
+                if (count == 0 || scores[count - 1] != score) {
+                    scores[count] = score;
+                    count++;
+                }
+                sizes[count - 1]++;
+            }
+            this.cohortScores = new int[count];
+            this.cohortSizes = new int[count];
+            System.arraycopy(scores, 0, this.cohortScores, 0, count);
+            System.arraycopy(sizes, 0, this.cohortSizes, 0, count);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(this.generationNumber);
+            out.writeInt(this.topScore);
+            out.writeInt(this.size);
+            out.writeLong(this.offset);
+            out.writeInt(this.cohortScores.length);
+            for (int n=0; n<this.cohortScores.length; n++) {
+                out.writeInt(this.cohortScores[n]);
+                out.writeInt(this.cohortSizes[n]);
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes written through it, so that the offset of each
+     * section is known as it is written.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        long getCount() {
+            return this.count;
+        }
+
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+    }
+
+}
@@ -25,6 +25,20 @@ import zujkomiller.maze.model.Direction;
 
 public abstract class GeneTranslator {
 
+    // the index of the Direction for each gene value
+    private static final int[] DIRECTION_INDEXES = new int[] {
+        Direction.SOUTH.getIndex(), Direction.NORTH.getIndex(),
+        Direction.WEST.getIndex(), Direction.EAST.getIndex()};
+
+    /**
+     * @return The index (see Direction.getIndex()) of the Direction
+     *  which the gene represents.  This gives the same Direction as
+     *  getDirection, without any object lookups.
+     */
+    public static int getDirectionIndex(short gene) {
+        return DIRECTION_INDEXES[gene];
+    }
+
     public static Direction getDirection(short gene) {
         Direction dir = null;
          switch (gene) {
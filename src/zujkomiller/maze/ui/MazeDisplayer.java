@@ -23,18 +23,48 @@ package zujkomiller.maze.ui;
 
 import zujkomiller.maze.model.*;
 
-import java.awt.event.*;
 import java.awt.*;
-import java.util.*;
+import java.awt.image.*;
 import javax.swing.*;
-import javax.swing.border.*;
-
 
+/**
+ * A MazeDisplayer draws a Maze on a single component.  The walls are
+ * drawn once, from the maze's CompiledMaze, into a BufferedImage which
+ * is then copied to the screen a clipped region at a time, so that
+ * showing or scrolling a large maze does not depend on how many cells
+ * it has.  Paths drawn with drawPath go into the same image, and only
+ * the cell they are drawn in is repainted.
+ * <p>
+ * Cells are drawn 75 pixels square, or smaller if that would make the
+ * image more than MAX_IMAGE_SIZE pixels across, but never smaller
+ * than MIN_CELL_SIZE.
+ */
 public class MazeDisplayer extends JPanel {
 
-    protected Grid[][] grids;
-    protected HashMap gridsByLocation = new HashMap();
-    protected JPanel mainPanel;
+    public static final int CELL_SIZE = 75;
+    public static final int MIN_CELL_SIZE = 3;
+    public static final int MAX_IMAGE_SIZE = 3000;
+
+    // the indexes of the colors of the image
+    private static final byte BACKGROUND = 0;
+    private static final byte WALL = 1;
+    private static final byte PATH = 2;
+    private static final byte MARKER = 3;
+
+    protected static final Color backgroundColor = new Color(204, 204, 255);
+    protected static final Color wallColor = Color.black;
+    protected static final Color pathColor = Color.red;
+    protected static final Color markerColor = Color.white;
+
+    protected Maze maze;
+    protected CompiledMaze compiledMaze;
+    protected int cellSize;
+
+    private int wallWidth;
+    private int pathWidth;
+    private BufferedImage image;
+    private byte[] pixels;
+    private int imageWidth;
 
     public MazeDisplayer(Maze displayMe) {
         this.displayMaze(displayMe);
@@ -42,51 +72,207 @@ public class MazeDisplayer extends JPanel {
     }
 
     public void displayMaze(Maze maze) {
-        int height = maze.getHeight();
-        int width = maze.getWidth();
-
-        grids = new Grid[width][height];
-        Location[][] mazeGrids = maze.getLocations();
-        
-        int gridHeight = 75;
-        int gridWidth = 75;
-        
-        mainPanel = new JPanel();
-        mainPanel.setLayout(new GridLayout(width, height));
-
-        Grid grid = null;
+        this.maze = maze;
+        this.compiledMaze = maze.getCompiledMaze();
+        int width = compiledMaze.getWidth();
+        int height = compiledMaze.getHeight();
+        this.cellSize = Math.max(MIN_CELL_SIZE, Math.min(CELL_SIZE,
+            MAX_IMAGE_SIZE / Math.max(width, height)));
+        this.wallWidth = Math.max(1, cellSize / 15);
+        this.pathWidth = Math.max(1, cellSize / 25);
+
+        // leave a margin for the half of the outside walls which lies
+        // outside the cells
+        this.imageWidth = (width * cellSize) + (2 * wallWidth);
+        int imageHeight = (height * cellSize) + (2 * wallWidth);
+        byte[] reds = new byte[] {(byte)backgroundColor.getRed(),
+            (byte)wallColor.getRed(), (byte)pathColor.getRed(),
+            (byte)markerColor.getRed()};
+        byte[] greens = new byte[] {(byte)backgroundColor.getGreen(),
+            (byte)wallColor.getGreen(), (byte)pathColor.getGreen(),
+            (byte)markerColor.getGreen()};
+        byte[] blues = new byte[] {(byte)backgroundColor.getBlue(),
+            (byte)wallColor.getBlue(), (byte)pathColor.getBlue(),
+            (byte)markerColor.getBlue()};
+        this.image = new BufferedImage(imageWidth, imageHeight,
+            BufferedImage.TYPE_BYTE_INDEXED,
+            new IndexColorModel(8, 4, reds, greens, blues));
+        this.pixels = ((DataBufferByte)image.getRaster().getDataBuffer()).
+            getData();
+
+        drawWalls();
+        drawMarker(maze.getEntryLocation(), "start");
+        drawMarker(maze.getDestination(), "end");
+
+        this.setBackground(backgroundColor);
+        this.setPreferredSize(new Dimension(imageWidth, imageHeight));
+        revalidate();
+        repaint();
+    }
+
+    private void drawWalls() {
+        int width = compiledMaze.getWidth();
+        int height = compiledMaze.getHeight();
+        int north = Direction.NORTH.getIndex();
+        int south = Direction.SOUTH.getIndex();
+        int east = Direction.EAST.getIndex();
+        int west = Direction.WEST.getIndex();
+        boolean drawCellLines = cellSize >= 20;
+
         for (int y=0; y<height; y++) {
             for (int x=0; x<width; x++) {
-                grid = new Grid(mazeGrids[x][y], gridWidth, gridHeight);
-                gridsByLocation.put(mazeGrids[x][y], grid);
-                grids[x][y] = grid;
-                JPanel gridPanel = new JPanel();
-                gridPanel.setLayout(new BorderLayout());
-                gridPanel.add(grid, BorderLayout.CENTER);
-                gridPanel.setBorder(BorderFactory.createLineBorder(Color.black));
-                mainPanel.add(gridPanel);
+                int cell = compiledMaze.getCellIndex(x, y);
+                int left = wallWidth + (x * cellSize);
+                int top = wallWidth + (y * cellSize);
+                if (drawCellLines) {
+                    fill(left, top, cellSize, 1, WALL);
+                    fill(left, top, 1, cellSize, WALL);
+                }
+                // each wall is centered on the edge between two cells,
+                // and is drawn from both of them
+                if (compiledMaze.hasWall(cell, north)) {
+                    fill(left - wallWidth, top - wallWidth,
+                        cellSize + (2 * wallWidth), 2 * wallWidth, WALL);
+                }
+                if (compiledMaze.hasWall(cell, south)) {
+                    fill(left - wallWidth, top + cellSize - wallWidth,
+                        cellSize + (2 * wallWidth), 2 * wallWidth, WALL);
+                }
+                if (compiledMaze.hasWall(cell, west)) {
+                    fill(left - wallWidth, top - wallWidth,
+                        2 * wallWidth, cellSize + (2 * wallWidth), WALL);
+                }
+                if (compiledMaze.hasWall(cell, east)) {
+                    fill(left + cellSize - wallWidth, top - wallWidth,
+                        2 * wallWidth, cellSize + (2 * wallWidth), WALL);
+                }
+            }
+        }
+    }
+
+    /**
+     * Labels the cell of the Location, or fills its middle if the cells
+     * are too small to hold the label.
+     */
+    private void drawMarker(Location location, String label) {
+        if (location != null) {
+            Rectangle bounds = getCellRectangle(compiledMaze.getCellIndex
+                (location.getXCoord(), location.getYCoord()));
+            if (cellSize >= 30) {
+                Graphics g = image.getGraphics();
+                g.setColor(wallColor);
+                FontMetrics metrics = g.getFontMetrics();
+                g.drawString(label, bounds.x + ((bounds.width -
+                    metrics.stringWidth(label)) / 2),
+                    bounds.y + bounds.height - wallWidth -
+                    metrics.getDescent() - 2);
+                g.dispose();
+            } else {
+                int inset = Math.max(wallWidth, cellSize / 4);
+                fill(bounds.x + inset, bounds.y + inset,
+                    bounds.width - (2 * inset), bounds.height - (2 * inset),
+                    MARKER);
+            }
+        }
+    }
+
+    /**
+     * Draws a path from the center of the cell to its edge in the
+     * direction with the given index (see Direction.getIndex()), or to
+     * the wall if there is one there, and repaints the cell.
+     */
+    public void drawPath(int cell, int direction) {
+        Rectangle bounds = getCellRectangle(cell);
+        int half = pathWidth / 2;
+        int centerX = bounds.x + (bounds.width / 2) - half;
+        int centerY = bounds.y + (bounds.height / 2) - half;
+        int stop = compiledMaze.hasWall(cell, direction) ? wallWidth : 0;
+        if (direction == Direction.NORTH.getIndex()) {
+            fill(centerX, bounds.y + stop, pathWidth,
+                centerY + pathWidth - (bounds.y + stop), PATH);
+        } else if (direction == Direction.SOUTH.getIndex()) {
+            fill(centerX, centerY, pathWidth,
+                bounds.y + bounds.height - stop - centerY, PATH);
+        } else if (direction == Direction.WEST.getIndex()) {
+            fill(bounds.x + stop, centerY,
+                centerX + pathWidth - (bounds.x + stop), pathWidth, PATH);
+        } else if (direction == Direction.EAST.getIndex()) {
+            fill(centerX, centerY,
+                bounds.x + bounds.width - stop - centerX, pathWidth, PATH);
+        }
+        repaintCell(cell);
+    }
+
+    /**
+     * Sets the pixels of a rectangle of the image to a color, clipping
+     * the rectangle to the image.
+     */
+    private void fill(int x, int y, int width, int height, byte color) {
+        int imageHeight = pixels.length / imageWidth;
+        int left = Math.max(0, x);
+        int right = Math.min(imageWidth, x + width);
+        int bottom = Math.min(imageHeight, y + height);
+        for (int row=Math.max(0, y); row<bottom; row++) {
+            int start = row * imageWidth;
+            for (int col=left; col<right; col++) {
+                pixels[start + col] = color;
             }
         }
-        
-        mainPanel.setBorder(BorderFactory.createLineBorder(Color.black, 1));
-        this.setLayout(new GridBagLayout());
-        this.add(mainPanel);
-        
-        Location entry = maze.getEntryLocation();
-        JPanel entryPanel = grids[entry.getXCoord()][entry.getYCoord()];
-        entryPanel.setLayout(new BorderLayout());
-        JLabel start = new JLabel("start", JLabel.CENTER);
-        start.setOpaque(false);
-        entryPanel.add(start, BorderLayout.SOUTH);
-
-        Location destination = maze.getDestination();
-        JPanel destinationPanel =
-            grids[destination.getXCoord()][destination.getYCoord()];
-        destinationPanel.setLayout(new BorderLayout());
-        JLabel end = new JLabel("end", JLabel.CENTER);
-        end.setOpaque(false);
-        destinationPanel.add(end, BorderLayout.SOUTH);
     }
 
+    /**
+     * @return The rectangle covered by the cell in the image.
+     */
+    private Rectangle getCellRectangle(int cell) {
+        return new Rectangle(wallWidth + (compiledMaze.getXCoord(cell) *
+            cellSize), wallWidth + (compiledMaze.getYCoord(cell) * cellSize),
+            cellSize, cellSize);
+    }
+
+    /**
+     * @return Where the top left corner of the image is drawn, which is
+     *  in the middle of this component if it is larger than the image.
+     */
+    protected Point getImageOrigin() {
+        return new Point(Math.max(0, (getWidth() - image.getWidth()) / 2),
+            Math.max(0, (getHeight() - image.getHeight()) / 2));
+    }
+
+    /**
+     * @return The rectangle covered by the cell on this component.
+     */
+    public Rectangle getCellBounds(int cell) {
+        Rectangle bounds = getCellRectangle(cell);
+        Point origin = getImageOrigin();
+        bounds.translate(origin.x, origin.y);
+        return bounds;
+    }
+
+    /**
+     * Repaints the cell, and the walls around it.
+     */
+    protected void repaintCell(int cell) {
+        Rectangle bounds = getCellBounds(cell);
+        bounds.grow(wallWidth, wallWidth);
+        repaint(bounds);
+    }
+
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        // copy only the part of the image within the clip
+        Point origin = getImageOrigin();
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        clip = clip.intersection(new Rectangle(origin.x, origin.y,
+            image.getWidth(), image.getHeight()));
+        if (!clip.isEmpty()) {
+            g.drawImage(image, clip.x, clip.y, clip.x + clip.width,
+                clip.y + clip.height, clip.x - origin.x, clip.y - origin.y,
+                clip.x - origin.x + clip.width,
+                clip.y - origin.y + clip.height, null);
+        }
+    }
 
-}
\ No newline at end of file
+}
@@ -33,63 +33,43 @@ import javax.swing.border.*;
 
 public class MazeSolutionDisplayer extends MazeDisplayer {
     
-    private Maze maze;
     private short[] directions;
     private int directionIndex = 0;
     private Traveler traveler = null;
     private int animateSleepTime = 400;
     private double iconSizeFactor = .2;
     private Rectangle iconRectangle;
-    private Grid currentGrid;
+    private int currentCell = CompiledMaze.WALL;
     private ArrayList listeners = new ArrayList();
     
     public MazeSolutionDisplayer(Maze maze, Individual individual) {
         super(maze);
-        this.maze = maze;
         this.directions = individual.getChromosome().getGenes();
         this.displayStaticPath();
     }
     
     protected void displayStaticPath() {
-        Location entryLocation = maze.getEntryLocation(); // logical place
-        Grid entryGrid = 
-            (Grid)gridsByLocation.get(entryLocation); // graphical representation
-        
-        Traveler traveler = new Traveler(entryLocation);
+        Traveler traveler = new Traveler(compiledMaze);
+        int currentCell = traveler.getCurrentCell();
                 
         // ask the traveler to move in all directions
-        Direction nextDirection = null;
-        Grid currentGrid = entryGrid;
-        Grid nextGrid = null;
+        int nextDirection = 0;
         for (int n=0; n<directions.length; n++) {
-            nextDirection = GeneTranslator.getDirection(directions[n]);
-            drawDirection(currentGrid, nextDirection);
+            nextDirection = GeneTranslator.getDirectionIndex(directions[n]);
+            drawPath(currentCell, nextDirection);
             traveler.travel(nextDirection);
-            nextGrid = (Grid)gridsByLocation.get(traveler.getCurrentLocation());
-            if (nextGrid != currentGrid) {
+            if (traveler.getCurrentCell() != currentCell) {
                // the traveler didn't hit a wall - yippeee!
-                currentGrid = nextGrid;
+                currentCell = traveler.getCurrentCell();
                 
-                // the traveler enters the new grid from the opposite
+                // the traveler enters the new cell from the opposite
                 // direction, so draw the entry
-                nextDirection = Direction.getOppositeDirection(nextDirection);
-                drawDirection(currentGrid, nextDirection);
+                drawPath(currentCell, Direction.getOppositeDirection
+                    (Direction.getDirection(nextDirection)).getIndex());
             }
         }
     }
     
-    protected void drawDirection(Grid grid, Direction direction) {
-        if (direction.equals(Direction.NORTH)) {
-            grid.drawCenterToNorth();
-        } else if (direction.equals(Direction.SOUTH)) {
-            grid.drawCenterToSouth();
-        } else if (direction.equals(Direction.EAST)) {
-            grid.drawCenterToEast();
-        } else if (direction.equals(Direction.WEST)) {
-            grid.drawCenterToWest();
-        }
-    }
-    
     public void animate() {
         new Thread() {
             public void run() {
@@ -161,29 +141,24 @@ public class MazeSolutionDisplayer extends MazeDisplayer {
         notifyListeners(true);       
         
         // paint an icon in the start location
-        Location entryLocation = maze.getEntryLocation(); // logical place
-        Grid entryGrid = 
-            (Grid)gridsByLocation.get(entryLocation); // graphical representation
-        Grid currentGrid = entryGrid;
-        paintIconInGrid(currentGrid);
+        Traveler traveler = new Traveler(compiledMaze);
+        int currentCell = traveler.getCurrentCell();
+        paintIconInCell(currentCell);
         
-        Traveler traveler = new Traveler(entryLocation);
-        Direction nextDirection = null;
-        Grid nextGrid = null;
+        int nextDirection = 0;
           
         // ask the traveler to move in all directions
         for (int n=0; n<directions.length; n++) {
-            nextDirection = GeneTranslator.getDirection(directions[n]);
+            nextDirection = GeneTranslator.getDirectionIndex(directions[n]);
             traveler.travel(nextDirection);
-            nextGrid = (Grid)gridsByLocation.get(traveler.getCurrentLocation());
-            if (nextGrid != currentGrid) {
+            if (traveler.getCurrentCell() != currentCell) {
                 // the traveler didn't hit a wall - yippeee!
-                // draw an icon in the center of the grid 
-                currentGrid = nextGrid;
-                paintIconInGrid(currentGrid);
+                // draw an icon in the center of the cell 
+                currentCell = traveler.getCurrentCell();
+                paintIconInCell(currentCell);
             } else {               
                 // hit a wall
-                paintIconHitsWall(currentGrid, nextDirection);
+                paintIconHitsWall(currentCell, nextDirection);
             }
         }
         
@@ -200,144 +175,111 @@ public class MazeSolutionDisplayer extends MazeDisplayer {
             resetAnimation();
         }
 
-        // ask the traveler to move forward
-        Direction nextDirection = null;
-        Grid nextGrid = null;              
-
         if (traveler == null) {
             // this is the first time the traveler has been 
             // asked to step forward since resetAnimation() was called
             // so, create a new traveler who starts at the beginning
-            Location entryLocation = maze.getEntryLocation(); // logical place
-            Grid entryGrid = 
-                (Grid)gridsByLocation.get(entryLocation); // graphical representation
-            currentGrid = entryGrid;
-            traveler = new Traveler(entryLocation); 
+            traveler = new Traveler(compiledMaze); 
+            currentCell = traveler.getCurrentCell();
         } 
 
-        // draw an icon in the center of the current grid          
-        paintIconInGrid(currentGrid);
+        // draw an icon in the center of the current cell          
+        paintIconInCell(currentCell);
 
         // now ask the traveler to move to the next location
         // and increment the directionIndex
-        nextDirection = GeneTranslator.getDirection(directions[directionIndex]);
+        int nextDirection =
+            GeneTranslator.getDirectionIndex(directions[directionIndex]);
         traveler.travel(nextDirection);
-        nextGrid = (Grid)gridsByLocation.get(traveler.getCurrentLocation());
         directionIndex++;
 
-        if (nextGrid != currentGrid) {
+        if (traveler.getCurrentCell() != currentCell) {
             // the traveler didn't hit a wall - yippeee!
-            // draw an icon in the center of the current grid 
-            currentGrid = nextGrid;
-            paintIconInGrid(currentGrid);
+            // draw an icon in the center of the current cell 
+            currentCell = traveler.getCurrentCell();
+            paintIconInCell(currentCell);
         } else {
             // hit a wall
-            paintIconHitsWall(currentGrid, nextDirection);
+            paintIconHitsWall(currentCell, nextDirection);
         }
         notifyListeners(false);   
     }
     
-    protected void paintIconInGrid(Grid currentGrid) {
-        Rectangle currentGridBounds = currentGrid.getParent().getBounds();
-        
-        // the mainPanel is where the maze is located
-        // use it to get the bounds of the maze
-        Rectangle mazeRectangle = mainPanel.getBounds();
-        double mazeX = mazeRectangle.getX();
-        double mazeY = mazeRectangle.getY();
-        double mazeWidth = mazeRectangle.getWidth();
-        double mazeHeight = mazeRectangle.getHeight();
-        
-        double x = currentGridBounds.getX() + mazeX;
-        double y = currentGridBounds.getY() + mazeY;
-        double width = currentGridBounds.getWidth();
-        double height = currentGridBounds.getHeight();
-        int iconWidth = (int)(width * iconSizeFactor);
-        int iconHeight = (int)(height * iconSizeFactor);
-        int iconX = (int)(x + ((width/2) - (iconWidth/2)));
-        int iconY = (int)(y + ((height/2) - (iconHeight/2)));
-        iconRectangle = new Rectangle(iconX, iconY, iconWidth, iconHeight);
-        repaint();
-        try {
-            // sleep so that the animation is slow enough to see
-            Thread.currentThread().sleep(animateSleepTime);
-        } catch (Exception e) {
-            // do nothing
-        }   
+    protected void paintIconInCell(int cell) {
+        moveIcon(getIconRectangle(cell));
     }
     
-    protected void paintIconHitsWall(Grid currentGrid, Direction nextDirection) {
-        Rectangle currentGridBounds = currentGrid.getParent().getBounds();
-        
-        // the mainPanel is where the maze is located
-        // use it to get the bounds of the maze
-        Rectangle mazeRectangle = mainPanel.getBounds();
-        double mazeX = mazeRectangle.getX();
-        double mazeY = mazeRectangle.getY();
-        double mazeWidth = mazeRectangle.getWidth();
-        double mazeHeight = mazeRectangle.getHeight();
+    protected void paintIconHitsWall(int cell, int nextDirection) {
+        Rectangle icon = getIconRectangle(cell);
+        int width = cellSize / 2;
+        int height = cellSize / 2;
         
-        double x = currentGridBounds.getX() + mazeX;
-        double y = currentGridBounds.getY() + mazeY;
-        double width = currentGridBounds.getWidth();
-        double height = currentGridBounds.getHeight();
-        int iconWidth = (int)(width * iconSizeFactor);
-        int iconHeight = (int)(height * iconSizeFactor);
-        int iconX = (int)(x + ((width/2) - (iconWidth/2)));
-        int iconY = (int)(y + ((height/2) - (iconHeight/2)));
-        
-        if (nextDirection.equals(Direction.WEST)) {
-            iconX = (int)(iconX - (width/2));
-            iconRectangle = new Rectangle(iconX, iconY, iconWidth, iconHeight);   
-        } else if (nextDirection.equals(Direction.EAST)) {
-            iconX = (int)(iconX + (width/2));
-            iconRectangle = new Rectangle(iconX, iconY, iconWidth, iconHeight);
-        } else if (nextDirection.equals(Direction.SOUTH)) {
-            iconY = (int)(iconY + (height/2));
-            iconRectangle = new Rectangle(iconX, iconY, iconWidth, iconHeight);
-        } else if (nextDirection.equals(Direction.NORTH)) {
-            iconY = (int)(iconY - (height/2));
-            iconRectangle = new Rectangle(iconX, iconY, iconWidth, iconHeight);
+        if (nextDirection == Direction.WEST.getIndex()) {
+            icon.translate(-width, 0);
+        } else if (nextDirection == Direction.EAST.getIndex()) {
+            icon.translate(width, 0);
+        } else if (nextDirection == Direction.SOUTH.getIndex()) {
+            icon.translate(0, height);
+        } else if (nextDirection == Direction.NORTH.getIndex()) {
+            icon.translate(0, -height);
         } 
-        repaint();
-        try {
-            // sleep so that the animation is slow enough to see
-            Thread.currentThread().sleep(animateSleepTime);
-        } catch (Exception e) {
-            // do nothing
-        }
+        moveIcon(icon);
         
-        // now move the icon back to the center of the current grid
-        iconX = (int)(x + ((width/2) - (iconWidth/2)));
-        iconY = (int)(y + ((height/2) - (iconHeight/2)));
-
-        iconRectangle = new Rectangle(iconX, iconY, iconWidth, iconHeight);
-        repaint();
+        // now move the icon back to the center of the current cell
+        moveIcon(getIconRectangle(cell));
+    }
+    
+    /**
+     * @return The rectangle for an icon in the center of the cell.
+     */
+    private Rectangle getIconRectangle(int cell) {
+        Rectangle bounds = getCellBounds(cell);
+        int iconWidth = Math.max(1, (int)(bounds.width * iconSizeFactor));
+        int iconHeight = Math.max(1, (int)(bounds.height * iconSizeFactor));
+        return new Rectangle(bounds.x + ((bounds.width - iconWidth) / 2),
+            bounds.y + ((bounds.height - iconHeight) / 2),
+            iconWidth, iconHeight);
+    }
+    
+    /**
+     * Moves the icon, repainting only where it was and where it is now,
+     * then waits so that the animation is slow enough to see.
+     */
+    private void moveIcon(Rectangle icon) {
+        Rectangle dirty = icon;
+        if (iconRectangle != null) {
+            dirty = dirty.union(iconRectangle);
+        }
+        iconRectangle = icon;
+        repaint(dirty.x, dirty.y, dirty.width + 1, dirty.height + 1);
         try {
             // sleep so that the animation is slow enough to see
             Thread.currentThread().sleep(animateSleepTime);
         } catch (Exception e) {
             // do nothing
-        }
-        
+        }   
     }
     
     protected void resetAnimation() {
+        if (iconRectangle != null) {
+            repaint(iconRectangle.x, iconRectangle.y,
+                iconRectangle.width + 1, iconRectangle.height + 1);
+        }
         iconRectangle = null;
-        currentGrid = null;
+        currentCell = CompiledMaze.WALL;
         traveler = null;
         directionIndex = 0;
     }
     
         
-    public void paint(Graphics g) {
-        super.paint(g);
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
         
-        if (iconRectangle != null) {
+        Rectangle icon = iconRectangle;
+        if (icon != null) {
             g.setColor(Color.red);
-            g.fillOval((int)iconRectangle.getX(), (int)iconRectangle.getY(), 
-                iconRectangle.width, iconRectangle.height);
+            g.fillOval(icon.x, icon.y, icon.width, icon.height);
         }  
     }
     
-}
\ No newline at end of file
+}
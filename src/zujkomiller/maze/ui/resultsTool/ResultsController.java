@@ -27,6 +27,7 @@ import zujkomiller.maze.ui.*;
 import zujkomiller.maze.persistence.*;
 
 import java.io.File;
+import java.io.IOException;
 import java.awt.event.*;
 import javax.swing.*;
 import javax.swing.tree.*;
@@ -54,7 +55,8 @@ public class ResultsController {
                     File resultsFile = view.getOpenFileName
                         (MazeAccessor.getResultsFileNames());
                     if (resultsFile != null) {
-                        model = MazeAccessor.loadResults(resultsFile);
+                        closeModel();
+                        model = MazeAccessor.mapResults(resultsFile);
                         view.showResultsIndex(model.getScoreData());
                     } else {
                         view.showNoResultsMsg();
@@ -83,6 +85,21 @@ public class ResultsController {
         return treeListener;        
     }
     
+    /**
+     * Closes the file behind the current results if they are read from
+     * it on demand.
+     */
+    private void closeModel() {
+        if (this.model instanceof MappedEvolutionData) {
+            try {
+                ((MappedEvolutionData)this.model).close();
+            } catch (IOException ioe) {
+                // do nothing - the results are no longer used
+            }
+        }
+        this.model = null;
+    }
+    
     public Maze getMaze() {
         return this.model.getMaze();
     }
@@ -0,0 +1,237 @@
+/*
+ * Genetic Algorithm Framework
+ * Copyright (c) 2001, 2002, 2003 by Cynthia Zujko-Miller
+ *
+ * This program is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License as published by the
+ * Free Software Foundation; either version 2 of the License, or (at your
+ * option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along
+ * with this program; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ * 
+ * for more information, contact the author: cynzu@yahoo.com
+ */
+
+package zujkomiller.maze.ui.resultsTool;
+
+import zujkomiller.maze.results.*;
+
+import java.util.*;
+import javax.swing.*;
+import javax.swing.event.*;
+import javax.swing.tree.*;
+
+/**
+ * A ResultsTreeModel shows the score data of a set of results as a tree
+ * without creating a node for each part of it.  The results themselves
+ * are the nodes: under the root are the GenerationScoreData, under
+ * each of those its Cohorts, and under each Cohort its Individuals.
+ * <p>
+ * A Cohort's Individuals are only asked for once loadIndividuals is
+ * called for it, which is done on a thread of its own since results
+ * read on demand may have many of them to create.  Until they arrive
+ * the Cohort has the single child LOADING, and when they do the
+ * listeners are told that the Cohort's children have changed.  If they
+ * can not be loaded, the single child says why instead, and expanding
+ * the Cohort again tries once more.
+ */
+public class ResultsTreeModel implements TreeModel {
+
+    public static final String LOADING = "loading...";
+
+    private Object root;
+    private GenerationScoreData[] scoreData;
+    private HashMap individualsByCohort = new HashMap();
+    private HashSet cohortsLoading = new HashSet();
+    private HashMap failuresByCohort = new HashMap();
+    private ArrayList listeners = new ArrayList();
+
+    /**
+     * @param root The object shown as the root of the tree.
+     */
+    public ResultsTreeModel(Object root, GenerationScoreData[] scoreData) {
+        this.root = root;
+        this.scoreData = scoreData;
+    }
+
+    public Object getRoot() {
+        return this.root;
+    }
+
+    public Object getChild(Object parent, int index) {
+        Object child = null;
+        if (parent == this.root) {
+            child = this.scoreData[index];
+        } else if (parent instanceof GenerationScoreData) {
+            child = ((GenerationScoreData)parent).getCohorts()[index];
+        } else if (parent instanceof Cohort) {
+            Individual[] individuals = getLoadedIndividuals((Cohort)parent);
+            if (individuals != null) {
+                child = individuals[index];
+            } else {
+                synchronized(this.individualsByCohort) {
+                    child = this.failuresByCohort.get(parent);
+                }
+                if (child == null) {
+                    child = LOADING;
+                }
+            }
+        }
+        return child;
+    }
+
+    public int getChildCount(Object parent) {
+        int count = 0;
+        if (parent == this.root) {
+            count = this.scoreData.length;
+        } else if (parent instanceof GenerationScoreData) {
+            count = ((GenerationScoreData)parent).getCohorts().length;
+        } else if (parent instanceof Cohort) {
+            Individual[] individuals = getLoadedIndividuals((Cohort)parent);
+            count = (individuals != null) ? individuals.length : 1;
+        }
+        return count;
+    }
+
+    public int getIndexOfChild(Object parent, Object child) {
+        int index = -1;
+        if (parent != null && child != null) {
+            int count = getChildCount(parent);
+            for (int n=0; n<count && index < 0; n++) {
+                if (getChild(parent, n) == child) {
+                    index = n;
+                }
+            }
+        }
+        return index;
+    }
+
+    public boolean isLeaf(Object node) {
+        // apart from the root, the only Strings are LOADING and failures
+        return node instanceof Individual ||
+            (node instanceof String && node != this.root);
+    }
+
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        // the results can not be edited
+    }
+
+    /**
+     * @return The text to show for a node of this model.
+     */
+    public String getText(Object node) {
+        String text = String.valueOf(node);
+        if (node instanceof GenerationScoreData) {
+            text = "Generation " +
+                ((GenerationScoreData)node).getGenerationNumber();
+        } else if (node instanceof Cohort) {
+            text = "score: " + ((Cohort)node).getScore();
+        }
+        return text;
+    }
+
+    /**
+     * Starts asking for the Individuals of the Cohort at the end of the
+     * given path, unless they have been already.  The listeners are
+     * told on the event dispatch thread when they arrive.
+     */
+    public void loadIndividuals(final TreePath path) {
+        Object node = path.getLastPathComponent();
+        if (node instanceof Cohort) {
+            final Cohort cohort = (Cohort)node;
+            boolean load = false;
+            synchronized(this.individualsByCohort) {
+                if (!this.individualsByCohort.containsKey(cohort) &&
+                        !this.cohortsLoading.contains(cohort)) {
+                    this.cohortsLoading.add(cohort);
+                    this.failuresByCohort.remove(cohort);
+                    load = true;
+                }
+            }
+            if (load) {
+                Thread loader = new Thread("results-index-loader") {
+                    public void run() {
+                        Runnable report = null;
+                        try {
+                            final Individual[] individuals =
+                                cohort.getIndividuals();
+                            report = new Runnable() {
+                                public void run() {
+                                    individualsLoaded(path, cohort,
+                                        individuals);
+                                }
+                            };
+                        } catch (final Throwable t) {
+                            t.printStackTrace();
+                            report = new Runnable() {
+                                public void run() {
+                                    individualsFailed(path, cohort, t);
+                                }
+                            };
+                        }
+                        SwingUtilities.invokeLater(report);
+                    }
+                };
+                loader.setDaemon(true);
+                loader.start();
+            }
+        }
+    }
+
+    private void individualsLoaded(TreePath path, Cohort cohort,
+            Individual[] individuals) {
+        synchronized(this.individualsByCohort) {
+            this.cohortsLoading.remove(cohort);
+            this.individualsByCohort.put(cohort, individuals);
+        }
+        fireTreeStructureChanged(path);
+    }
+
+    private void individualsFailed(TreePath path, Cohort cohort,
+            Throwable failure) {
+        synchronized(this.individualsByCohort) {
+            this.cohortsLoading.remove(cohort);
+            this.failuresByCohort.put(cohort, "could not be loaded: " +
+                failure);
+        }
+        fireTreeStructureChanged(path);
+    }
+
+    private void fireTreeStructureChanged(TreePath path) {
+        TreeModelEvent event = new TreeModelEvent(this, path);
+        synchronized(this.listeners) {
+            for (int n=0; n<this.listeners.size(); n++) {
+                ((TreeModelListener)this.listeners.get(n)).
+                    treeStructureChanged(event);
+            }
+        }
+    }
+
+    private Individual[] getLoadedIndividuals(Cohort cohort) {
+        synchronized(this.individualsByCohort) {
+            return (Individual[])this.individualsByCohort.get(cohort);
+        }
+    }
+
+    public void addTreeModelListener(TreeModelListener listener) {
+        synchronized(this.listeners) {
+            if (!this.listeners.contains(listener)) {
+                this.listeners.add(listener);
+            }
+        }
+    }
+
+    public void removeTreeModelListener(TreeModelListener listener) {
+        synchronized(this.listeners) {
+            this.listeners.remove(listener);
+        }
+    }
+
+}
@@ -338,36 +338,28 @@ public class ResultsView extends JPanel implements AnimationListener {
         showIndexFrame();
     }
     
+    /**
+     * Builds a tree over the score data through a ResultsTreeModel, so
+     * it takes as long to build however many generations there are.
+     * The Individuals of a Cohort are loaded when it is first expanded.
+     */
     protected JTree buildIndexTree(GenerationScoreData[] scoreData) {
-        JTree tree = new JTree(scoreData);
-        DefaultMutableTreeNode root = new DefaultMutableTreeNode
-            (this.selectedResultFile.getName());
-        
-        GenerationScoreData data = null;
-        for (int n=0; n<scoreData.length; n++) {
-            data = scoreData[n]; 
-            int genNum = data.getGenerationNumber();
-            DefaultMutableTreeNode genNode = 
-                new DefaultMutableTreeNode("Generation " + genNum);
-            Cohort[] cohorts = data.getCohorts();
-            
-            for (int x=0; x<cohorts.length; x++) {
-                DefaultMutableTreeNode cohortNode = 
-                    new DefaultMutableTreeNode("score: " + cohorts[x].getScore());
-                Individual[] individuals = cohorts[x].getIndividuals();
-                
-                for (int y=0; y<individuals.length; y++) {
-                    DefaultMutableTreeNode indivNode = 
-                        new DefaultMutableTreeNode(individuals[y]);
-                    cohortNode.add(indivNode);
-                }
-                
-                genNode.add(cohortNode);
+        final ResultsTreeModel model = new ResultsTreeModel
+            (this.selectedResultFile.getName(), scoreData);
+        JTree tree = new JTree(model) {
+            public String convertValueToText(Object value, boolean selected,
+                    boolean expanded, boolean leaf, int row,
+                    boolean hasFocus) {
+                return model.getText(value);
             }
-            root.add(genNode);
-        }
-        
-        tree = new JTree(new DefaultTreeModel(root));
+        };
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            public void treeWillExpand(TreeExpansionEvent e) {
+                model.loadIndividuals(e.getPath());
+            }
+            public void treeWillCollapse(TreeExpansionEvent e) {
+            }
+        });
         return tree;
     }
     
@@ -453,13 +445,9 @@ public class ResultsView extends JPanel implements AnimationListener {
     
     public void handleTreePathSelected(TreePath path, Maze maze) {
         Object obj = path.getLastPathComponent();
-        if (obj instanceof DefaultMutableTreeNode) {
-            DefaultMutableTreeNode selectedNode = (DefaultMutableTreeNode)obj;
-            obj = selectedNode.getUserObject();
-            if (obj instanceof Individual) {
-                Individual selectedIndividual = (Individual)obj;
-                this.displayIndividual(selectedIndividual, maze);
-            }
+        if (obj instanceof Individual) {
+            Individual selectedIndividual = (Individual)obj;
+            this.displayIndividual(selectedIndividual, maze);
         }
         
     }